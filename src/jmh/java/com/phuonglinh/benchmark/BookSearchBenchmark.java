@@ -0,0 +1,72 @@
+package com.phuonglinh.benchmark;
+
+import com.phuonglinh.dto.BookSearchCriteria;
+import com.phuonglinh.dto.Page;
+import com.phuonglinh.dto.PageRequest;
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.repository.BookRepository;
+import com.phuonglinh.repository.impl.BookRepositoryImpl;
+import com.phuonglinh.util.UnitOfWork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookSearchBenchmark {
+    private final BookRepository bookRepo = new BookRepositoryImpl();
+    private BookSearchCriteria criteria;
+    private PageRequest pageRequest;
+
+    @Param({"none", "title", "category", "available", "author", "query", "combined"})
+    public String filter;
+
+    @Param({"0", "10", "200"})
+    public int page;
+
+    @Param("20")
+    public int pageSize;
+
+    @Setup
+    public void setUp(SeededDatabase db) {
+        criteria = new BookSearchCriteria();
+        switch (filter) {
+            case "title":
+                criteria.setTitle(SeededDatabase.TITLE_WORDS[0]);
+                break;
+            case "category":
+                criteria.setCategory(SeededDatabase.CATEGORIES[0]);
+                break;
+            case "available":
+                criteria.setAvailable(true);
+                break;
+            case "author":
+                criteria.setAuthorName("Author 1");
+                break;
+            case "query":
+                criteria.setQuery(SeededDatabase.TITLE_WORDS[1].toLowerCase());
+                break;
+            case "combined":
+                criteria.setTitle(SeededDatabase.TITLE_WORDS[2]);
+                criteria.setCategory(SeededDatabase.CATEGORIES[1]);
+                criteria.setAvailable(true);
+                break;
+            default:
+                break;
+        }
+        pageRequest = new PageRequest(page, pageSize);
+    }
+
+    @Benchmark
+    public Page<Book> search() {
+        return UnitOfWork.readOnly(() -> bookRepo.search(criteria, pageRequest));
+    }
+}
@@ -0,0 +1,73 @@
+package com.phuonglinh.benchmark;
+
+import com.phuonglinh.dto.BookSearchCriteria;
+import com.phuonglinh.dto.BorrowBooksRequest;
+import com.phuonglinh.dto.PageRequest;
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.entity.Borrowing;
+import com.phuonglinh.entity.Member;
+import com.phuonglinh.repository.impl.BookRepositoryImpl;
+import com.phuonglinh.service.BorrowingService;
+import com.phuonglinh.service.MemberService;
+import com.phuonglinh.service.impl.Services;
+import com.phuonglinh.util.UnitOfWork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One checkout of {@code bookCount} books followed by their return, so every invocation leaves
+ * the books available again and the member below the borrowing limit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BorrowingBenchmark {
+    private final BorrowingService borrowingService = Services.borrowingService();
+    private List<Long> bookIds;
+    private Long memberId;
+    private int next;
+
+    @Param({"1", "3", "5"})
+    public int bookCount;
+
+    @Setup
+    public void setUp(SeededDatabase db) {
+        MemberService memberService = Services.memberService();
+        memberId = memberService.register(new Member("Checkout Bench", "checkout" + System.nanoTime() + "@bench.lms")).getId();
+
+        BookSearchCriteria available = new BookSearchCriteria();
+        available.setAvailable(true);
+        bookIds = new ArrayList<>();
+        for (Book book : UnitOfWork.readOnly(() ->
+                new BookRepositoryImpl().search(available, new PageRequest(0, 100)).getContent())) {
+            bookIds.add(book.getId());
+        }
+    }
+
+    @Benchmark
+    public List<Borrowing> borrowAndReturn() {
+        List<Long> batch = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            batch.add(bookIds.get(next++ % bookIds.size()));
+        }
+        List<Borrowing> borrowed = borrowingService.borrowBooks(
+                new BorrowBooksRequest(memberId, batch, LocalDate.now().plusDays(14)));
+        List<Long> borrowingIds = new ArrayList<>(borrowed.size());
+        for (Borrowing borrowing : borrowed) {
+            borrowingIds.add(borrowing.getId());
+        }
+        borrowingService.returnBooks(borrowingIds, LocalDate.now());
+        return borrowed;
+    }
+}
@@ -0,0 +1,51 @@
+package com.phuonglinh.benchmark;
+
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.entity.Borrowing;
+import com.phuonglinh.enums.FetchPlan;
+import com.phuonglinh.repository.BookRepository;
+import com.phuonglinh.repository.BorrowingRepository;
+import com.phuonglinh.repository.impl.BookRepositoryImpl;
+import com.phuonglinh.repository.impl.BorrowingRepositoryImpl;
+import com.phuonglinh.util.UnitOfWork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBenchmark {
+    private final BookRepository bookRepo = new BookRepositoryImpl();
+    private final BorrowingRepository borrowingRepo = new BorrowingRepositoryImpl();
+
+    @Benchmark
+    public List<Book> findTopBorrowed(SeededDatabase db) {
+        return UnitOfWork.readOnly(() -> bookRepo.findTopBorrowed(10));
+    }
+
+    @Benchmark
+    public List<Borrowing> findOverdue(SeededDatabase db) {
+        return UnitOfWork.readOnly(() -> borrowingRepo.findOverdue(LocalDate.now()));
+    }
+
+    // Also initializes each borrowing's book and member, as a list view of overdue items would
+    @Benchmark
+    public List<Borrowing> findOverdueFull(SeededDatabase db) {
+        return UnitOfWork.readOnly(() -> {
+            List<Borrowing> overdue = borrowingRepo.findOverdue(LocalDate.now(), FetchPlan.FULL);
+            for (Borrowing borrowing : overdue) {
+                borrowing.getBook().getTitle();
+                borrowing.getMember().getName();
+            }
+            return overdue;
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.phuonglinh.benchmark;
+
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.repository.BookRepository;
+import com.phuonglinh.repository.impl.BookRepositoryImpl;
+import com.phuonglinh.util.UnitOfWork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SaveAllBenchmark {
+    private final BookRepository bookRepo = new BookRepositoryImpl();
+    private List<Book> books;
+    private int sequence;
+
+    @Param("1000")
+    public int rows;
+
+    @Param({"1", "20", "50", "200"})
+    public int batchSize;
+
+    // Fresh, transient entities for every call; building them is not part of the measurement
+    @Setup(Level.Invocation)
+    public void newBooks(SeededDatabase db) {
+        books = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Book book = new Book("Imported " + sequence++, SeededDatabase.CATEGORIES[i % SeededDatabase.CATEGORIES.length]);
+            book.setIsbn(String.format("979%010d", sequence));
+            books.add(book);
+        }
+    }
+
+    @Benchmark
+    public void saveAll() {
+        UnitOfWork.write(() -> bookRepo.saveAll(books, batchSize));
+    }
+}
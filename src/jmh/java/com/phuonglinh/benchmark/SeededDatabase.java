@@ -0,0 +1,157 @@
+package com.phuonglinh.benchmark;
+
+import com.phuonglinh.entity.Author;
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.entity.Borrowing;
+import com.phuonglinh.entity.Member;
+import com.phuonglinh.enums.BorrowingStatus;
+import com.phuonglinh.index.AvailabilityIndex;
+import com.phuonglinh.index.BorrowLeaderboard;
+import com.phuonglinh.index.OverdueTracker;
+import com.phuonglinh.search.BookSearchIndex;
+import com.phuonglinh.util.CountEstimator;
+import com.phuonglinh.util.HibernateUtil;
+import com.phuonglinh.util.MemberEmailCache;
+import com.phuonglinh.util.UnitOfWork;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Fills the in-memory database once per fork. Volumes are JMH parameters, e.g.
+ * {@code -p books=100000 -p borrowings=500000}. The data is generated from a fixed seed, so runs
+ * with the same volumes are comparable. With {@code -f 0} all benchmarks share one database, which
+ * is wiped and seeded again whenever the volumes change.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+    static final String[] CATEGORIES = {
+            "Fiction", "Science", "History", "Art", "Travel", "Poetry", "Law", "Medicine", "Music", "Sports"};
+    static final String[] TITLE_WORDS = {
+            "River", "Garden", "Empire", "Shadow", "Harbor", "Winter", "Signal", "Atlas", "Orchard", "Engine"};
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String[] TABLES = {"borrowings", "book_authors", "books", "authors", "members"};
+    // Volumes the shared database holds, as books/members/borrowings
+    private static String seededVolumes;
+
+    @Param("10000")
+    public int books;
+
+    @Param("1000")
+    public int members;
+
+    @Param("20000")
+    public int borrowings;
+
+    @Setup
+    public void seed() {
+        String volumes = books + "/" + members + "/" + borrowings;
+        synchronized (SeededDatabase.class) {
+            // With -f 0 every benchmark shares one JVM and one database
+            if (!volumes.equals(seededVolumes)) {
+                boolean reseed = seededVolumes != null;
+                if (reseed) {
+                    clearAll();
+                }
+                seedAll();
+                if (reseed) {
+                    reloadIndexes();
+                }
+                seededVolumes = volumes;
+            }
+        }
+    }
+
+    private static void clearAll() {
+        UnitOfWork.write(() -> {
+            Session session = UnitOfWork.currentSession();
+            for (String table : TABLES) {
+                session.createNativeQuery("DELETE FROM " + table).executeUpdate();
+            }
+        });
+        HibernateUtil.getSessionFactory().getCache().evictAllRegions();
+        CountEstimator.getInstance().invalidate("");
+        MemberEmailCache.getInstance().clear();
+    }
+
+    // The in-memory indexes loaded for the previous volumes still describe the deleted rows
+    private static void reloadIndexes() {
+        AvailabilityIndex.getInstance().resync();
+        BookSearchIndex.getInstance().rebuild();
+        OverdueTracker.getInstance().reload();
+        BorrowLeaderboard.getInstance().reload();
+    }
+
+    private void seedAll() {
+        Random random = new Random(42);
+        int authors = Math.max(1, books / 10);
+        inChunks(authors, (session, i) -> session.save(new Author("Author " + i, 1900 + random.nextInt(120))));
+        inChunks(members, (session, i) -> session.save(new Member("Member " + i, "member" + i + "@bench.lms")));
+        inChunks(books, (session, i) -> {
+            Book book = new Book(TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " " + i,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            book.setIsbn(String.format("978%010d", i));
+            book.setDescription("Benchmark book " + i);
+            book.setBorrowCount((long) random.nextInt(500));
+            session.save(book);
+        });
+        UnitOfWork.write(() -> {
+            UnitOfWork.currentSession()
+                    .createNativeQuery("INSERT INTO book_authors (author_id, book_id) "
+                            + "SELECT (SELECT MIN(id) FROM authors) + MOD(b.id, :authors), b.id FROM books b")
+                    .setParameter("authors", authors)
+                    .executeUpdate();
+        });
+
+        long minBook = minId("Book");
+        long minMember = minId("Member");
+        LocalDate today = LocalDate.now();
+        inChunks(borrowings, (session, i) -> {
+            Member member = session.load(Member.class, minMember + i % members);
+            Book book = session.load(Book.class, minBook + random.nextInt(books));
+            LocalDate borrowed = today.minusDays(random.nextInt(365));
+            Borrowing borrowing = new Borrowing(member, book, borrowed, borrowed.plusDays(14));
+            // Roughly one in ten is still out, most of those overdue
+            if (random.nextInt(10) != 0) {
+                borrowing.setReturnDate(borrowed.plusDays(random.nextInt(14)));
+                borrowing.setStatus(BorrowingStatus.RETURNED);
+            }
+            session.save(borrowing);
+        });
+        UnitOfWork.write(() -> {
+            UnitOfWork.currentSession()
+                    .createQuery("UPDATE Book SET available = false WHERE id IN "
+                            + "(SELECT br.book.id FROM Borrowing br WHERE br.status = :status)")
+                    .setParameter("status", BorrowingStatus.BORROWED)
+                    .executeUpdate();
+        });
+    }
+
+    private static long minId(String entity) {
+        return UnitOfWork.readOnly(() -> UnitOfWork.currentSession()
+                .createQuery("SELECT MIN(e.id) FROM " + entity + " e", Long.class)
+                .getSingleResult());
+    }
+
+    private static void inChunks(int count, Row row) {
+        for (int start = 0; start < count; start += CHUNK_SIZE) {
+            int from = start;
+            UnitOfWork.write(() -> {
+                Session session = UnitOfWork.currentSession();
+                for (int i = from; i < Math.min(from + CHUNK_SIZE, count); i++) {
+                    row.save(session, i);
+                }
+            });
+        }
+    }
+
+    private interface Row {
+        void save(Session session, int index);
+    }
+}
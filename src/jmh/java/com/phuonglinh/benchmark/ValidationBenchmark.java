@@ -0,0 +1,45 @@
+package com.phuonglinh.benchmark;
+
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.entity.Member;
+import com.phuonglinh.exception.ValidationException;
+import com.phuonglinh.util.ValidationUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+    private final Book validBook = new Book("River 1", "Fiction");
+    private final Member validMember = new Member("Ann", "ann@bench.lms");
+    private final Member invalidMember = new Member("", "not-an-email");
+
+    @Benchmark
+    public Book validBook() {
+        ValidationUtil.validate(validBook);
+        return validBook;
+    }
+
+    @Benchmark
+    public Member validMember() {
+        ValidationUtil.validate(validMember);
+        return validMember;
+    }
+
+    @Benchmark
+    public ValidationException invalidMember() {
+        try {
+            ValidationUtil.validate(invalidMember);
+            return null;
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+}
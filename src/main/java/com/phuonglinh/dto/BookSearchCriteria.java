@@ -3,6 +3,7 @@ package com.phuonglinh.dto;
 import java.time.LocalDateTime;
 
 public class BookSearchCriteria {
+    private String query; // free text over title, description, ISBN and author names
     private String title;
     private String category;
     private Boolean available;
@@ -14,6 +15,14 @@ public class BookSearchCriteria {
     public BookSearchCriteria() {}
 
     // Getters and Setters
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -0,0 +1,41 @@
+package com.phuonglinh.dto;
+
+/**
+ * List-view projection of a book; skips the description and lazy collections.
+ */
+public class BookSummary {
+    private final Long id;
+    private final String title;
+    private final String category;
+    private final Boolean available;
+    private final String isbn;
+
+    public BookSummary(Long id, String title, String category, Boolean available, String isbn) {
+        this.id = id;
+        this.title = title;
+        this.category = category;
+        this.available = available;
+        this.isbn = isbn;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+}
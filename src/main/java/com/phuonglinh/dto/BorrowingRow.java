@@ -0,0 +1,45 @@
+package com.phuonglinh.dto;
+
+import com.phuonglinh.enums.BorrowingStatus;
+
+import java.time.LocalDate;
+
+/**
+ * List-view projection of a borrowing with the member and book names already joined in.
+ */
+public class BorrowingRow {
+    private final Long id;
+    private final String memberName;
+    private final String bookTitle;
+    private final LocalDate dueDate;
+    private final BorrowingStatus status;
+
+    public BorrowingRow(Long id, String memberName, String bookTitle, LocalDate dueDate, BorrowingStatus status) {
+        this.id = id;
+        this.memberName = memberName;
+        this.bookTitle = bookTitle;
+        this.dueDate = dueDate;
+        this.status = status;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getMemberName() {
+        return memberName;
+    }
+
+    public String getBookTitle() {
+        return bookTitle;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public BorrowingStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,28 @@
+package com.phuonglinh.dto;
+
+import com.phuonglinh.enums.BorrowingStatus;
+
+public class BorrowingStatusRow {
+    private final Long id;
+    private final BorrowingStatus status;
+    private final Long bookId;
+
+    public BorrowingStatusRow(Long id, BorrowingStatus status, Long bookId) {
+        this.id = id;
+        this.status = status;
+        this.bookId = bookId;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public BorrowingStatus getStatus() {
+        return status;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+}
@@ -0,0 +1,54 @@
+package com.phuonglinh.dto;
+
+public class BulkResult {
+    private long statements;
+    private long rows;
+    private long elapsedMs;
+
+    public BulkResult() {}
+
+    public BulkResult(long statements, long rows, long elapsedMs) {
+        this.statements = statements;
+        this.rows = rows;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public void addStatements(long statements, long rows) {
+        this.statements += statements;
+        this.rows += rows;
+    }
+
+    // Getters and Setters
+    public long getStatements() {
+        return statements;
+    }
+
+    public void setStatements(long statements) {
+        this.statements = statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResult{" +
+                "statements=" + statements +
+                ", rows=" + rows +
+                ", elapsedMs=" + elapsedMs +
+                '}';
+    }
+}
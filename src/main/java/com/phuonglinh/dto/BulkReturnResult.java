@@ -0,0 +1,39 @@
+package com.phuonglinh.dto;
+
+import com.phuonglinh.enums.ReturnOutcome;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BulkReturnResult {
+    private final Map<Long, ReturnOutcome> outcomes = new LinkedHashMap<>();
+
+    public BulkReturnResult() {}
+
+    public void record(Long borrowingId, ReturnOutcome outcome) {
+        outcomes.put(borrowingId, outcome);
+    }
+
+    // Getters
+    public Map<Long, ReturnOutcome> getOutcomes() {
+        return outcomes;
+    }
+
+    public ReturnOutcome getOutcome(Long borrowingId) {
+        return outcomes.get(borrowingId);
+    }
+
+    public List<Long> getIds(ReturnOutcome outcome) {
+        List<Long> ids = new ArrayList<>();
+        outcomes.forEach((id, o) -> {
+            if (o == outcome) ids.add(id);
+        });
+        return ids;
+    }
+
+    public int count(ReturnOutcome outcome) {
+        return getIds(outcome).size();
+    }
+}
@@ -0,0 +1,87 @@
+package com.phuonglinh.dto;
+
+public class CacheRegionStats {
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+    private long evictions;
+    private long elementsInMemory;
+
+    public CacheRegionStats() {}
+
+    public CacheRegionStats(String region, long hits, long misses, long puts, long evictions, long elementsInMemory) {
+        this.region = region;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.evictions = evictions;
+        this.elementsInMemory = elementsInMemory;
+    }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    // Getters and Setters
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public void setPuts(long puts) {
+        this.puts = puts;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public long getElementsInMemory() {
+        return elementsInMemory;
+    }
+
+    public void setElementsInMemory(long elementsInMemory) {
+        this.elementsInMemory = elementsInMemory;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheRegionStats{" +
+                "region='" + region + '\'' +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", puts=" + puts +
+                ", evictions=" + evictions +
+                ", elementsInMemory=" + elementsInMemory +
+                '}';
+    }
+}
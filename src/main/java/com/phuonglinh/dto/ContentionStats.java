@@ -0,0 +1,62 @@
+package com.phuonglinh.dto;
+
+public class ContentionStats {
+    private final String operation;
+    private final long attempts;
+    private final long successes;
+    private final long conflicts;
+    private final long retries;
+    private final long exhausted;
+    private final long backoffMillis;
+
+    public ContentionStats(String operation, long attempts, long successes, long conflicts, long retries,
+                           long exhausted, long backoffMillis) {
+        this.operation = operation;
+        this.attempts = attempts;
+        this.successes = successes;
+        this.conflicts = conflicts;
+        this.retries = retries;
+        this.exhausted = exhausted;
+        this.backoffMillis = backoffMillis;
+    }
+
+    public double getConflictRate() {
+        return attempts == 0 ? 0 : (double) conflicts / attempts;
+    }
+
+    // Getters
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    public long getExhausted() {
+        return exhausted;
+    }
+
+    public long getBackoffMillis() {
+        return backoffMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ContentionStats{" + operation + ": attempts=" + attempts + ", successes=" + successes
+                + ", conflicts=" + conflicts + ", retries=" + retries + ", exhausted=" + exhausted
+                + ", backoffMillis=" + backoffMillis + "}";
+    }
+}
@@ -0,0 +1,55 @@
+package com.phuonglinh.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CursorRequest {
+    private int size = 10;
+    private List<PageRequest.Sort> sorts = new ArrayList<>();
+    private String cursor; // null for the first page
+
+    public CursorRequest() {}
+
+    public CursorRequest(int size) {
+        this.size = size;
+    }
+
+    public CursorRequest(int size, List<PageRequest.Sort> sorts, String cursor) {
+        this.size = size;
+        this.sorts = sorts;
+        this.cursor = cursor;
+    }
+
+    // Getters and Setters
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public List<PageRequest.Sort> getSorts() {
+        return sorts;
+    }
+
+    public void setSorts(List<PageRequest.Sort> sorts) {
+        this.sorts = sorts;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public void addSort(String field, PageRequest.SortDirection direction) {
+        sorts.add(new PageRequest.Sort(field, direction));
+    }
+
+    public CursorRequest next(String nextCursor) {
+        return new CursorRequest(size, sorts, nextCursor);
+    }
+}
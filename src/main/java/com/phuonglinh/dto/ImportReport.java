@@ -0,0 +1,95 @@
+package com.phuonglinh.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReport {
+    private static final int MAX_ERRORS = 100;
+
+    private long resumedFromRow;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private long rowsSkipped;
+    private int chunksCommitted;
+    private long elapsedMs;
+    private List<String> errors = new ArrayList<>();
+
+    public ImportReport() {}
+
+    public void addError(long row, String message) {
+        rowsRejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("Row " + row + ": " + message);
+        }
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMs > 0 ? rowsImported * 1000 / elapsedMs : rowsImported;
+    }
+
+    // Getters and Setters
+    public long getResumedFromRow() {
+        return resumedFromRow;
+    }
+
+    public void setResumedFromRow(long resumedFromRow) {
+        this.resumedFromRow = resumedFromRow;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public void setRowsImported(long rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public void setRowsRejected(long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    public void setRowsSkipped(long rowsSkipped) {
+        this.rowsSkipped = rowsSkipped;
+    }
+
+    public int getChunksCommitted() {
+        return chunksCommitted;
+    }
+
+    public void setChunksCommitted(int chunksCommitted) {
+        this.chunksCommitted = chunksCommitted;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,74 @@
+package com.phuonglinh.dto;
+
+public class MetricStats {
+    private final String name;
+    private final String unit;
+    private final long count;
+    private final long sum;
+    private final long max;
+    private final long p50;
+    private final long p95;
+    private final long p99;
+
+    public MetricStats(String name, String unit, long count, long sum, long max, long p50, long p95, long p99) {
+        this.name = name;
+        this.unit = unit;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+        this.p50 = p50;
+        this.p95 = p95;
+        this.p99 = p99;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP95() {
+        return p95;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricStats{" +
+                "name='" + name + '\'' +
+                ", unit='" + unit + '\'' +
+                ", count=" + count +
+                ", mean=" + String.format("%.1f", getMean()) +
+                ", max=" + max +
+                ", p50=" + p50 +
+                ", p95=" + p95 +
+                ", p99=" + p99 +
+                '}';
+    }
+}
@@ -0,0 +1,32 @@
+package com.phuonglinh.dto;
+
+public class OverdueBookRow {
+    private final Long id;
+    private final String title;
+    private final String category;
+    private final boolean available;
+
+    public OverdueBookRow(Long id, String title, String category, boolean available) {
+        this.id = id;
+        this.title = title;
+        this.category = category;
+        this.available = available;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+}
@@ -0,0 +1,28 @@
+package com.phuonglinh.dto;
+
+import java.time.LocalDate;
+
+public class OverdueBorrowingRow {
+    private final Long id;
+    private final LocalDate borrowDate;
+    private final LocalDate dueDate;
+
+    public OverdueBorrowingRow(Long id, LocalDate borrowDate, LocalDate dueDate) {
+        this.id = id;
+        this.borrowDate = borrowDate;
+        this.dueDate = dueDate;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getBorrowDate() {
+        return borrowDate;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+}
@@ -0,0 +1,48 @@
+package com.phuonglinh.dto;
+
+import java.time.LocalDate;
+
+public class OverdueItem {
+    private final Long borrowingId;
+    private final Long bookId;
+    private final Long memberId;
+    private final LocalDate dueDate;
+
+    public OverdueItem(Long borrowingId, Long bookId, Long memberId, LocalDate dueDate) {
+        this.borrowingId = borrowingId;
+        this.bookId = bookId;
+        this.memberId = memberId;
+        this.dueDate = dueDate;
+    }
+
+    public OverdueItem withDueDate(LocalDate newDueDate) {
+        return new OverdueItem(borrowingId, bookId, memberId, newDueDate);
+    }
+
+    // Getters
+    public Long getBorrowingId() {
+        return borrowingId;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    @Override
+    public String toString() {
+        return "OverdueItem{" +
+                "borrowingId=" + borrowingId +
+                ", bookId=" + bookId +
+                ", memberId=" + memberId +
+                ", dueDate=" + dueDate +
+                '}';
+    }
+}
@@ -8,15 +8,37 @@ public class Page<T> {
     private int totalPages;
     private int page;
     private int size;
+    private PageRequest.CountMode countMode = PageRequest.CountMode.EXACT;
+    private boolean nextAvailable;
+    // Set when a free-text search matched more books than it ranks, so later pages stop short
+    private boolean truncated;
 
     public Page() {}
 
     public Page(List<T> content, long totalElements, int page, int size) {
+        this(content, totalElements, page, size, PageRequest.CountMode.EXACT, false);
+    }
+
+    // Without a count the totals are unknown (-1); hasNext comes from the extra row fetched
+    public Page(List<T> content, int page, int size, boolean nextAvailable) {
+        this.content = content;
+        this.totalElements = -1;
+        this.totalPages = -1;
+        this.page = page;
+        this.size = size;
+        this.countMode = PageRequest.CountMode.NONE;
+        this.nextAvailable = nextAvailable;
+    }
+
+    public Page(List<T> content, long totalElements, int page, int size,
+                PageRequest.CountMode countMode, boolean nextAvailable) {
         this.content = content;
         this.totalElements = totalElements;
         this.page = page;
         this.size = size;
         this.totalPages = (int) Math.ceil((double) totalElements / size);
+        this.countMode = countMode;
+        this.nextAvailable = nextAvailable;
     }
 
     // Getters and Setters
@@ -60,8 +82,27 @@ public class Page<T> {
         this.size = size;
     }
 
+    public PageRequest.CountMode getCountMode() {
+        return countMode;
+    }
+
+    public void setCountMode(PageRequest.CountMode countMode) {
+        this.countMode = countMode;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
     public boolean hasNext() {
-        return page < totalPages - 1;
+        if (countMode == PageRequest.CountMode.EXACT) {
+            return page < totalPages - 1;
+        }
+        return nextAvailable;
     }
 
     public boolean hasPrevious() {
@@ -7,6 +7,7 @@ public class PageRequest {
     private int page = 0; // 0-based
     private int size = 10;
     private List<Sort> sorts = new ArrayList<>();
+    private CountMode countMode = CountMode.EXACT;
 
     public PageRequest() {}
 
@@ -46,6 +47,14 @@ public class PageRequest {
         this.sorts = sorts;
     }
 
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    public void setCountMode(CountMode countMode) {
+        this.countMode = countMode;
+    }
+
     public void addSort(String field, SortDirection direction) {
         sorts.add(new Sort(field, direction));
     }
@@ -82,4 +91,10 @@ public class PageRequest {
     public enum SortDirection {
         ASC, DESC
     }
+
+    public enum CountMode {
+        EXACT,     // run COUNT(*) with the same predicates
+        NONE,      // skip counting, fetch size + 1 rows to decide hasNext
+        ESTIMATED  // cached count, refreshed in the background once stale
+    }
 }
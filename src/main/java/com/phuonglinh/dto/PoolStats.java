@@ -0,0 +1,86 @@
+package com.phuonglinh.dto;
+
+public class PoolStats {
+    private String pool;
+    private int active;
+    private int idle;
+    private int total;
+    private int threadsAwaiting;
+    private int maximumPoolSize;
+
+    public PoolStats() {}
+
+    public PoolStats(String pool, int active, int idle, int total, int threadsAwaiting, int maximumPoolSize) {
+        this.pool = pool;
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.threadsAwaiting = threadsAwaiting;
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public double getUtilization() {
+        return maximumPoolSize == 0 ? 0 : (double) active / maximumPoolSize;
+    }
+
+    // Getters and Setters
+    public String getPool() {
+        return pool;
+    }
+
+    public void setPool(String pool) {
+        this.pool = pool;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public void setIdle(int idle) {
+        this.idle = idle;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getThreadsAwaiting() {
+        return threadsAwaiting;
+    }
+
+    public void setThreadsAwaiting(int threadsAwaiting) {
+        this.threadsAwaiting = threadsAwaiting;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "pool='" + pool + '\'' +
+                ", active=" + active +
+                ", idle=" + idle +
+                ", total=" + total +
+                ", threadsAwaiting=" + threadsAwaiting +
+                ", maximumPoolSize=" + maximumPoolSize +
+                '}';
+    }
+}
@@ -1,5 +1,8 @@
 package com.phuonglinh.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import java.util.HashSet;
@@ -7,6 +10,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "authors")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Author extends BaseEntity {
 
     @NotBlank(message = "Author name is required")
@@ -19,6 +23,7 @@ public class Author extends BaseEntity {
     @Column(name = "biography", columnDefinition = "TEXT")
     private String biography;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinTable(
             name = "book_authors",
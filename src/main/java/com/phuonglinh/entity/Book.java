@@ -1,5 +1,6 @@
 package com.phuonglinh.entity;
 
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 
@@ -10,17 +11,31 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_borrow_count", columnList = "borrow_count"),
+        @Index(name = "idx_books_isbn", columnList = "isbn")
+})
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Borrowing.book proxies from a page of borrowings, or an overdue report, load 50 books per query
+@BatchSize(size = 50)
 @NamedQueries({
         @NamedQuery(
                 name = "Book.findTopBorrowed",
-                query = "SELECT b FROM Book b LEFT JOIN b.borrowings br " +
-                        "GROUP BY b ORDER BY COUNT(br) DESC"
+                query = "SELECT b FROM Book b ORDER BY b.borrowCount DESC, b.id"
         ),
         @NamedQuery(
                 name = "Book.findByAuthor",
                 query = "SELECT b FROM Book b JOIN b.authors a WHERE a.id = :authorId"
+        ),
+        @NamedQuery(
+                name = "Book.findTopBorrowedSummaries",
+                query = "SELECT new com.phuonglinh.dto.BookSummary(b.id, b.title, b.category, b.available, b.isbn) " +
+                        "FROM Book b ORDER BY b.borrowCount DESC, b.id"
+        ),
+        @NamedQuery(
+                name = "Book.findSummariesByAuthor",
+                query = "SELECT new com.phuonglinh.dto.BookSummary(b.id, b.title, b.category, b.available, b.isbn) " +
+                        "FROM Book b JOIN b.authors a WHERE a.id = :authorId"
         )
 })
 public class Book extends BaseEntity {
@@ -43,6 +58,11 @@ public class Book extends BaseEntity {
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
 
+    // Maintained by borrowBooks so ranking does not aggregate the borrowings table
+    @Column(name = "borrow_count", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long borrowCount = 0L;
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @ManyToMany(mappedBy = "books", fetch = FetchType.LAZY)
     private Set<Author> authors = new HashSet<>();
 
@@ -98,6 +118,14 @@ public class Book extends BaseEntity {
         this.description = description;
     }
 
+    public Long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public void setBorrowCount(Long borrowCount) {
+        this.borrowCount = borrowCount;
+    }
+
     public Set<Author> getAuthors() {
         return authors;
     }
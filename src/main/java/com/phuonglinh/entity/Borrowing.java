@@ -8,7 +8,7 @@ import javax.validation.constraints.NotNull;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "borrowings")
+@Table(name = "borrowings", indexes = @Index(name = "idx_borrowings_borrow_date", columnList = "borrow_date"))
 @NamedQueries({
         @NamedQuery(
                 name = "Borrowing.findOverdue",
@@ -23,6 +23,12 @@ import java.time.LocalDate;
                 query = "SELECT b FROM Borrowing b WHERE b.book.id = :bookId AND b.status = 'BORROWED'"
         )
 })
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = "Borrowing.withBook", attributeNodes = @NamedAttributeNode("book")),
+        @NamedEntityGraph(name = "Borrowing.withMember", attributeNodes = @NamedAttributeNode("member")),
+        @NamedEntityGraph(name = "Borrowing.full", attributeNodes = {
+                @NamedAttributeNode("book"), @NamedAttributeNode("member")})
+})
 public class Borrowing extends BaseEntity {
 
     @NotNull(message = "Member is required")
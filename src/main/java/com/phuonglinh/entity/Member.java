@@ -1,6 +1,8 @@
 package com.phuonglinh.entity;
 
-
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.Email;
@@ -11,6 +13,9 @@ import java.util.Set;
 
 @Entity
 @Table(name = "members")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Borrowing.member proxies, e.g. when listing a book's borrowers, load 50 members per query
+@BatchSize(size = 50)
 public class Member extends BaseEntity {
 
     @NotBlank(message = "Member name is required")
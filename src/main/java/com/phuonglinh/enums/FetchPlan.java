@@ -0,0 +1,22 @@
+package com.phuonglinh.enums;
+
+/**
+ * Associations of a Borrowing to load together with it. Each plan other than NONE maps to a
+ * named entity graph declared on the entity.
+ */
+public enum FetchPlan {
+    NONE(null),
+    WITH_BOOK("Borrowing.withBook"),
+    WITH_MEMBER("Borrowing.withMember"),
+    FULL("Borrowing.full");
+
+    private final String graphName;
+
+    FetchPlan(String graphName) {
+        this.graphName = graphName;
+    }
+
+    public String getGraphName() {
+        return graphName;
+    }
+}
@@ -0,0 +1,6 @@
+package com.phuonglinh.enums;
+
+public enum ImportFormat {
+    CSV,
+    JSON_LINES
+}
@@ -0,0 +1,7 @@
+package com.phuonglinh.enums;
+
+public enum ReturnOutcome {
+    RETURNED,
+    ALREADY_RETURNED,
+    NOT_FOUND
+}
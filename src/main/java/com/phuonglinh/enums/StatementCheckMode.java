@@ -0,0 +1,7 @@
+package com.phuonglinh.enums;
+
+public enum StatementCheckMode {
+    OFF,
+    WARN,
+    FAIL
+}
@@ -0,0 +1,11 @@
+package com.phuonglinh.exception;
+
+public class ConcurrencyConflictException extends LibraryException {
+    public ConcurrencyConflictException(String message) {
+        super(message);
+    }
+
+    public ConcurrencyConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.phuonglinh.exception;
+
+public class StatementBudgetExceededException extends LibraryException {
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
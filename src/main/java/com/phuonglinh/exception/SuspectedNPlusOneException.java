@@ -0,0 +1,7 @@
+package com.phuonglinh.exception;
+
+public class SuspectedNPlusOneException extends LibraryException {
+    public SuspectedNPlusOneException(String message) {
+        super(message);
+    }
+}
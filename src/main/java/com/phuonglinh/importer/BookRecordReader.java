@@ -0,0 +1,220 @@
+package com.phuonglinh.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.enums.ImportFormat;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads books one record at a time from CSV (with a header row) or JSON-lines input through a
+ * fixed-size buffer. Recognised columns/keys: title, category, isbn, description, available.
+ */
+public class BookRecordReader implements Closeable {
+
+    private final BufferedReader reader;
+    private final ImportFormat format;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Map<String, Integer> columns;
+    private long row;
+
+    public BookRecordReader(InputStream in, ImportFormat format, int bufferSize) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), bufferSize);
+        this.format = format;
+    }
+
+    /**
+     * Returns the next record, or null at end of input. Malformed records come back with an
+     * error instead of a book so the caller can report them and continue.
+     */
+    public ParsedRow next() throws IOException {
+        if (format == ImportFormat.CSV) {
+            readHeaderIfNeeded();
+            List<String> fields = readCsvRecord();
+            if (fields == null) {
+                return null;
+            }
+            row++;
+            try {
+                return new ParsedRow(row, toBook(fields), null);
+            } catch (IllegalArgumentException e) {
+                return new ParsedRow(row, null, e.getMessage());
+            }
+        }
+
+        String line = nextNonBlankLine();
+        if (line == null) {
+            return null;
+        }
+        row++;
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> values = mapper.readValue(line, Map.class);
+            return new ParsedRow(row, toBook(values), null);
+        } catch (IOException | IllegalArgumentException e) {
+            return new ParsedRow(row, null, "Malformed JSON: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Skips a record without mapping it; used when resuming past already committed rows.
+     */
+    public boolean skip() throws IOException {
+        if (format == ImportFormat.CSV) {
+            readHeaderIfNeeded();
+            if (readCsvRecord() == null) {
+                return false;
+            }
+        } else if (nextNonBlankLine() == null) {
+            return false;
+        }
+        row++;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeaderIfNeeded() throws IOException {
+        if (columns != null) {
+            return;
+        }
+        columns = new HashMap<>();
+        List<String> header = readCsvRecord();
+        if (header == null) {
+            return;
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(), i);
+        }
+        if (!columns.containsKey("title") || !columns.containsKey("category")) {
+            throw new IOException("CSV header must contain at least 'title' and 'category'");
+        }
+    }
+
+    private Book toBook(List<String> fields) {
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<String, Integer> column : columns.entrySet()) {
+            if (column.getValue() < fields.size()) {
+                values.put(column.getKey(), fields.get(column.getValue()));
+            }
+        }
+        return toBook(values);
+    }
+
+    private Book toBook(Map<String, Object> values) {
+        Book book = new Book(text(values.get("title")), text(values.get("category")));
+        book.setIsbn(text(values.get("isbn")));
+        book.setDescription(text(values.get("description")));
+        Object available = values.get("available");
+        if (available != null && !available.toString().trim().isEmpty()) {
+            book.setAvailable(parseBoolean(available.toString().trim()));
+        }
+        return book;
+    }
+
+    private static String text(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static boolean parseBoolean(String value) {
+        switch (value.toLowerCase()) {
+            case "true": case "1": case "yes": case "y":
+                return true;
+            case "false": case "0": case "no": case "n":
+                return false;
+            default:
+                throw new IllegalArgumentException("Invalid value for available: " + value);
+        }
+    }
+
+    private String nextNonBlankLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.trim().isEmpty());
+        return line;
+    }
+
+    // RFC 4180: quoted fields may contain commas, doubled quotes and line breaks
+    private List<String> readCsvRecord() throws IOException {
+        String line = nextNonBlankLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            line = reader.readLine();
+            if (line == null) {
+                throw new IOException("Unterminated quoted field at end of input");
+            }
+            field.append('\n');
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    public static class ParsedRow {
+        private final long row;
+        private final Book book;
+        private final String error;
+
+        ParsedRow(long row, Book book, String error) {
+            this.row = row;
+            this.book = book;
+            this.error = error;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public Book getBook() {
+            return book;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.phuonglinh.importer;
+
+import com.phuonglinh.dto.ImportReport;
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.enums.ImportFormat;
+import com.phuonglinh.exception.LibraryException;
+import com.phuonglinh.index.AvailabilityIndex;
+import com.phuonglinh.repository.BookRepository;
+import com.phuonglinh.repository.BulkRepository;
+import com.phuonglinh.search.BookSearchIndex;
+import com.phuonglinh.util.CountEstimator;
+import com.phuonglinh.util.UnitOfWork;
+import com.phuonglinh.util.ValidationUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.validation.ConstraintViolation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Imports books as a three-stage pipeline: a parser thread, a validator thread and the calling
+ * thread writing one transaction per chunk. Stages are joined by small bounded queues, so heap use
+ * depends on the chunk size and not on the input size. When importing from a file, the last
+ * committed row is recorded in a checkpoint file next to it so that a failed run can be resumed.
+ * The checkpoint is written after the chunk commits, so a crash in between replays that chunk;
+ * books whose ISBN is already stored are skipped, which makes the replay harmless for them.
+ * Rows without an ISBN cannot be matched and are imported again.
+ */
+public class StreamingBookImporter {
+    private static final Logger log = LoggerFactory.getLogger(StreamingBookImporter.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int QUEUE_CAPACITY = 2;
+    private static final String CHECKPOINT_KEY = "committedRows";
+    private static final Chunk END = new Chunk(-1, new ArrayList<>());
+
+    private final BulkRepository repository;
+    private final BookRepository bookRepository;
+    private final BookSearchIndex searchIndex;
+    private final AvailabilityIndex availabilityIndex;
+    private final CountEstimator countEstimator;
+    private final int chunkSize;
+    private final int batchSize;
+
+    public StreamingBookImporter(BulkRepository repository, BookRepository bookRepository, BookSearchIndex searchIndex,
+                                 AvailabilityIndex availabilityIndex, int chunkSize, int batchSize) {
+        if (chunkSize <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Chunk size and batch size must be positive");
+        }
+        this.repository = repository;
+        this.bookRepository = bookRepository;
+        this.searchIndex = searchIndex;
+        this.availabilityIndex = availabilityIndex;
+        this.countEstimator = CountEstimator.getInstance();
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+    }
+
+    public ImportReport importFrom(Path source, ImportFormat format) {
+        Path checkpoint = source.resolveSibling(source.getFileName() + ".checkpoint");
+        long resumeAfter = readCheckpoint(checkpoint);
+        if (resumeAfter > 0) {
+            log.info("Resuming import of {} after row {}", source, resumeAfter);
+        }
+        try (InputStream in = Files.newInputStream(source)) {
+            ImportReport report = run(in, format, resumeAfter, checkpoint);
+            Files.deleteIfExists(checkpoint);
+            return report;
+        } catch (IOException e) {
+            throw new LibraryException("Failed to read import source: " + source, e);
+        }
+    }
+
+    public ImportReport importFrom(InputStream source, ImportFormat format) {
+        return run(source, format, 0, null);
+    }
+
+    private ImportReport run(InputStream in, ImportFormat format, long resumeAfter, Path checkpoint) {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        report.setResumedFromRow(resumeAfter);
+
+        BlockingQueue<Chunk> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Chunk> validated = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService stages = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "book-import-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            Future<?> parser = stages.submit(() -> stage(failure, () -> parse(in, format, resumeAfter, parsed)));
+            Future<?> validator = stages.submit(() -> stage(failure, () -> validate(parsed, validated, failure)));
+            write(validated, failure, report, checkpoint);
+            parser.get();
+            validator.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LibraryException("Book import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new LibraryException("Book import failed", e.getCause());
+        } finally {
+            stages.shutdownNow();
+        }
+
+        report.setElapsedMs((System.nanoTime() - start) / 1_000_000);
+        log.info("Imported {} books ({} rejected, {} already present) from {} rows in {} ms ({} rows/sec)",
+                report.getRowsImported(), report.getRowsRejected(), report.getRowsSkipped(), report.getRowsRead(),
+                report.getElapsedMs(), report.getRowsPerSecond());
+        return report;
+    }
+
+    private void parse(InputStream in, ImportFormat format, long resumeAfter, BlockingQueue<Chunk> out)
+            throws IOException, InterruptedException {
+        BookRecordReader reader = new BookRecordReader(in, format, BUFFER_SIZE);
+        for (long skipped = 0; skipped < resumeAfter; skipped++) {
+            if (!reader.skip()) {
+                break;
+            }
+        }
+        List<BookRecordReader.ParsedRow> rows = new ArrayList<>(chunkSize);
+        BookRecordReader.ParsedRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+            if (rows.size() == chunkSize) {
+                out.put(new Chunk(row.getRow(), rows));
+                rows = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!rows.isEmpty()) {
+            out.put(new Chunk(rows.get(rows.size() - 1).getRow(), rows));
+        }
+        out.put(END);
+    }
+
+    private void validate(BlockingQueue<Chunk> in, BlockingQueue<Chunk> out, AtomicReference<Throwable> failure)
+            throws InterruptedException {
+        while (true) {
+            Chunk chunk = take(in, failure);
+            if (chunk == END) {
+                out.put(END);
+                return;
+            }
+            for (BookRecordReader.ParsedRow row : chunk.rows) {
+                if (row.getError() != null) {
+                    chunk.rejected.add(row);
+                    continue;
+                }
+                Set<ConstraintViolation<Book>> violations = ValidationUtil.getViolations(row.getBook());
+                if (violations.isEmpty()) {
+                    chunk.books.add(row.getBook());
+                } else {
+                    chunk.rejected.add(new BookRecordReader.ParsedRow(row.getRow(), null, violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .collect(Collectors.joining(", "))));
+                }
+            }
+            out.put(chunk);
+        }
+    }
+
+    private void write(BlockingQueue<Chunk> in, AtomicReference<Throwable> failure, ImportReport report,
+                       Path checkpoint) throws InterruptedException {
+        while (true) {
+            Chunk chunk = take(in, failure);
+            if (chunk == END) {
+                return;
+            }
+            int skipped = skipExisting(chunk.books);
+            if (!chunk.books.isEmpty()) {
+                repository.bulkInsert(chunk.books, batchSize);
+                chunk.books.forEach(searchIndex::index);
+                chunk.books.forEach(availabilityIndex::index);
+                countEstimator.invalidate("Book.");
+            }
+            report.setRowsRead(report.getRowsRead() + chunk.rows.size());
+            report.setRowsImported(report.getRowsImported() + chunk.books.size());
+            report.setRowsSkipped(report.getRowsSkipped() + skipped);
+            for (BookRecordReader.ParsedRow rejected : chunk.rejected) {
+                report.addError(rejected.getRow(), rejected.getError());
+            }
+            report.setChunksCommitted(report.getChunksCommitted() + 1);
+            if (checkpoint != null) {
+                writeCheckpoint(checkpoint, chunk.lastRow);
+            }
+        }
+    }
+
+    // Drops books whose ISBN is already stored, such as those of a chunk replayed after a crash
+    private int skipExisting(List<Book> books) {
+        Set<String> isbns = books.stream()
+                .map(Book::getIsbn)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (isbns.isEmpty()) {
+            return 0;
+        }
+        Set<String> existing = UnitOfWork.readOnly(() -> bookRepository.findExistingIsbns(isbns));
+        int before = books.size();
+        books.removeIf(book -> book.getIsbn() != null && existing.contains(book.getIsbn()));
+        return before - books.size();
+    }
+
+    private static Chunk take(BlockingQueue<Chunk> queue, AtomicReference<Throwable> failure)
+            throws InterruptedException {
+        while (true) {
+            Chunk chunk = queue.poll(100, TimeUnit.MILLISECONDS);
+            if (chunk != null) {
+                return chunk;
+            }
+            Throwable cause = failure.get();
+            if (cause != null) {
+                throw new LibraryException("Book import stage failed", cause);
+            }
+        }
+    }
+
+    private static Void stage(AtomicReference<Throwable> failure, Stage stage) throws Exception {
+        try {
+            stage.run();
+            return null;
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+            throw e;
+        }
+    }
+
+    private static long readCheckpoint(Path checkpoint) {
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpoint)) {
+            properties.load(reader);
+            return Long.parseLong(properties.getProperty(CHECKPOINT_KEY, "0"));
+        } catch (IOException | NumberFormatException e) {
+            throw new LibraryException("Unreadable import checkpoint: " + checkpoint, e);
+        }
+    }
+
+    private static void writeCheckpoint(Path checkpoint, long committedRows) {
+        Properties properties = new Properties();
+        properties.setProperty(CHECKPOINT_KEY, Long.toString(committedRows));
+        Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp)) {
+            properties.store(writer, null);
+        } catch (IOException e) {
+            throw new LibraryException("Failed to write import checkpoint: " + checkpoint, e);
+        }
+        try {
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new LibraryException("Failed to write import checkpoint: " + checkpoint, e);
+        }
+    }
+
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    private static class Chunk {
+        private final long lastRow;
+        private final List<BookRecordReader.ParsedRow> rows;
+        private final List<Book> books = new ArrayList<>();
+        private final List<BookRecordReader.ParsedRow> rejected = new ArrayList<>();
+
+        Chunk(long lastRow, List<BookRecordReader.ParsedRow> rows) {
+            this.lastRow = lastRow;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.phuonglinh.index;
+
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.util.UnitOfWork;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Book availability held as compressed bitmaps keyed by book ID, with per-category counts. The
+ * services update it after commit; a background job resyncs it with the database every
+ * {@code lms.availability.resyncMinutes} to pick up changes made outside this process. Until
+ * then its answers may be stale, so they are hints only: callers confirm "unavailable" against
+ * the database before rejecting anything, and checkout still claims books with a conditional
+ * UPDATE.
+ */
+public class AvailabilityIndex {
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityIndex.class);
+    private static final int UNKNOWN = -1;
+    private static volatile boolean outOfRangeLogged;
+    private static final AvailabilityIndex INSTANCE = new AvailabilityIndex(
+            Long.getLong("lms.availability.resyncMinutes", 10));
+
+    private final long resyncMinutes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    private List<Consumer<State>> resyncLog;
+    private ScheduledExecutorService resyncer;
+    private volatile boolean loaded;
+
+    AvailabilityIndex(long resyncMinutes) {
+        this.resyncMinutes = resyncMinutes;
+    }
+
+    public static AvailabilityIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns false for unavailable books and also for books the index does not know.
+     */
+    public boolean isAvailable(Long bookId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return state.available.contains(key(bookId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the given IDs that belong to available books, in the caller's order.
+     */
+    public List<Long> filterAvailable(Collection<Long> bookIds) {
+        return filter(bookIds, true);
+    }
+
+    /**
+     * Returns the given IDs that belong to known books that are not available. Unknown IDs are
+     * in neither this list nor {@link #filterAvailable(Collection)}.
+     */
+    public List<Long> filterUnavailable(Collection<Long> bookIds) {
+        return filter(bookIds, false);
+    }
+
+    public int countAvailable() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return state.available.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countAvailable(String category) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return state.availableByCategory.getOrDefault(category, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        int id = key(book.getId());
+        String category = book.getCategory();
+        boolean available = Boolean.TRUE.equals(book.getAvailable());
+        apply(s -> s.put(id, category, available));
+    }
+
+    public void setAvailable(Collection<Long> bookIds, boolean available) {
+        int[] ids = bookIds.stream().mapToInt(AvailabilityIndex::key).toArray();
+        apply(s -> {
+            for (int id : ids) {
+                s.setAvailable(id, available);
+            }
+        });
+    }
+
+    public void remove(Long bookId) {
+        if (bookId != null) {
+            int id = key(bookId);
+            apply(s -> s.remove(id));
+        }
+    }
+
+    /**
+     * Reloads availability from the database. Changes applied while the snapshot is read are
+     * replayed onto it before it replaces the current state.
+     */
+    public synchronized void resync() {
+        lock.writeLock().lock();
+        try {
+            resyncLog = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        State fresh = new State();
+        try {
+            UnitOfWork.readOnly(() -> {
+                try (ScrollableResults rows = UnitOfWork.currentSession()
+                        .createQuery("SELECT b.id, b.category, b.available FROM Book b")
+                        .setFetchSize(1000)
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (rows.next()) {
+                        fresh.put(key((Long) rows.get(0)), (String) rows.get(1), Boolean.TRUE.equals(rows.get(2)));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                resyncLog = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Consumer<State> change : resyncLog) {
+                change.accept(fresh);
+            }
+            resyncLog = null;
+            state = fresh;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        startResyncer();
+        logger.info("Availability index loaded: {} of {} books available, {} KB of bitmaps in {} ms",
+                fresh.available.cardinality(), fresh.books.cardinality(), fresh.sizeInBytes() / 1024,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<Long> filter(Collection<Long> bookIds, boolean available) {
+        ensureLoaded();
+        List<Long> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long bookId : bookIds) {
+                int id = key(bookId);
+                if (state.books.contains(id) && state.available.contains(id) == available) {
+                    matches.add(bookId);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    resync();
+                }
+            }
+        }
+    }
+
+    private void apply(Consumer<State> change) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded && resyncLog == null) {
+                return; // the first read loads everything from the database anyway
+            }
+            change.accept(state);
+            if (resyncLog != null) {
+                resyncLog.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void startResyncer() {
+        if (resyncer != null) {
+            return;
+        }
+        resyncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "availability-resync");
+            t.setDaemon(true);
+            return t;
+        });
+        resyncer.scheduleWithFixedDelay(() -> {
+            try {
+                resync();
+            } catch (RuntimeException e) {
+                logger.warn("Availability resync failed", e);
+            }
+        }, resyncMinutes, resyncMinutes, TimeUnit.MINUTES);
+    }
+
+    // Book IDs come from the pooled-lo sequence; ones beyond the bitmap's int range are left out
+    // of the index and count as unknown, so callers fall back to the database for them
+    private static int key(Long bookId) {
+        if (bookId < 0 || bookId > Integer.MAX_VALUE) {
+            if (!outOfRangeLogged) {
+                outOfRangeLogged = true;
+                logger.warn("Book ID {} is beyond the availability index's range; such books are not indexed", bookId);
+            }
+            return UNKNOWN;
+        }
+        return (int) (long) bookId;
+    }
+
+    private static class State {
+        private final IdBitmap books = new IdBitmap();
+        private final IdBitmap available = new IdBitmap();
+        private final Map<String, IdBitmap> categories = new HashMap<>();
+        private final Map<String, Integer> availableByCategory = new HashMap<>();
+
+        void put(int id, String category, boolean isAvailable) {
+            if (id == UNKNOWN) {
+                return;
+            }
+            remove(id);
+            books.add(id);
+            categories.computeIfAbsent(category, c -> new IdBitmap()).add(id);
+            if (isAvailable) {
+                available.add(id);
+                availableByCategory.merge(category, 1, Integer::sum);
+            }
+        }
+
+        void setAvailable(int id, boolean isAvailable) {
+            if (id == UNKNOWN || !books.contains(id) || available.contains(id) == isAvailable) {
+                return;
+            }
+            if (isAvailable) {
+                available.add(id);
+            } else {
+                available.remove(id);
+            }
+            String category = categoryOf(id);
+            if (category != null) {
+                availableByCategory.merge(category, isAvailable ? 1 : -1, Integer::sum);
+            }
+        }
+
+        void remove(int id) {
+            if (id == UNKNOWN || !books.remove(id)) {
+                return;
+            }
+            String category = categoryOf(id);
+            if (category != null) {
+                categories.get(category).remove(id);
+                if (categories.get(category).cardinality() == 0) {
+                    categories.remove(category);
+                }
+            }
+            if (available.remove(id) && category != null) {
+                availableByCategory.merge(category, -1, Integer::sum);
+            }
+        }
+
+        // Categories are few, so a scan of their bitmaps is cheaper than a per-book map
+        private String categoryOf(int id) {
+            for (Map.Entry<String, IdBitmap> entry : categories.entrySet()) {
+                if (entry.getValue().contains(id)) {
+                    return entry.getKey();
+                }
+            }
+            return null;
+        }
+
+        long sizeInBytes() {
+            long bytes = books.sizeInBytes() + available.sizeInBytes();
+            for (IdBitmap members : categories.values()) {
+                bytes += members.sizeInBytes();
+            }
+            return bytes;
+        }
+    }
+}
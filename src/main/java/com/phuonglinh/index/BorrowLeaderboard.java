@@ -0,0 +1,190 @@
+package com.phuonglinh.index;
+
+import com.phuonglinh.util.UnitOfWork;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * In-memory "most borrowed" ranking. Keeps the exact all-time top K books, which works because
+ * borrow counts only grow: a book outside the top K can enter it only through a borrow recorded
+ * here. Per-day counts for the last {@code lms.leaderboard.windowDays} days back the windowed
+ * variants.
+ */
+public class BorrowLeaderboard {
+    private static final Logger logger = LoggerFactory.getLogger(BorrowLeaderboard.class);
+    // Declared before INSTANCE, whose constructor uses it
+    private static final Comparator<Map.Entry<Long, Long>> RANKING =
+            Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+    private static final BorrowLeaderboard INSTANCE = new BorrowLeaderboard(
+            Integer.getInteger("lms.leaderboard.capacity", 100),
+            Integer.getInteger("lms.leaderboard.windowDays", 30));
+
+    private final int capacity;
+    private final int windowDays;
+    private final Map<Long, Long> topCounts = new HashMap<>();
+    private final TreeSet<Map.Entry<Long, Long>> ranking = new TreeSet<>(RANKING);
+    private final NavigableMap<LocalDate, Map<Long, Long>> daily = new TreeMap<>();
+    private boolean loaded;
+
+    BorrowLeaderboard(int capacity, int windowDays) {
+        this.capacity = capacity;
+        this.windowDays = windowDays;
+    }
+
+    public static BorrowLeaderboard getInstance() {
+        return INSTANCE;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    /**
+     * Returns the IDs of the {@code limit} most borrowed books, or null when {@code limit}
+     * exceeds the tracked capacity and the caller has to ask the database.
+     */
+    public synchronized List<Long> top(int limit) {
+        if (limit > capacity) {
+            return null;
+        }
+        ensureLoaded();
+        List<Long> ids = new ArrayList<>(Math.min(limit, ranking.size()));
+        for (Map.Entry<Long, Long> entry : ranking) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the IDs of the most borrowed books since {@code from}, or null when the window is
+     * longer than the one kept in memory.
+     */
+    public synchronized List<Long> topSince(LocalDate from, int limit) {
+        if (from.isBefore(LocalDate.now().minusDays(windowDays - 1))) {
+            return null;
+        }
+        ensureLoaded();
+        Map<Long, Long> totals = new HashMap<>();
+        for (Map<Long, Long> day : daily.tailMap(from, true).values()) {
+            day.forEach((id, count) -> totals.merge(id, count, Long::sum));
+        }
+        // Keep only the best 'limit' entries; the head of the queue is the weakest of them
+        PriorityQueue<Map.Entry<Long, Long>> best = new PriorityQueue<>(RANKING.reversed());
+        for (Map.Entry<Long, Long> entry : totals.entrySet()) {
+            best.offer(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Map.Entry<Long, Long>> sorted = new ArrayList<>(best);
+        sorted.sort(RANKING);
+        List<Long> ids = new ArrayList<>(sorted.size());
+        for (Map.Entry<Long, Long> entry : sorted) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    /**
+     * Records committed borrows. {@code newCounts} maps each borrowed book to its borrow count
+     * after the increment.
+     */
+    public synchronized void recordBorrows(Map<Long, Long> newCounts, LocalDate day) {
+        if (!loaded) {
+            return; // the next read loads current counts from the database
+        }
+        for (Map.Entry<Long, Long> entry : newCounts.entrySet()) {
+            offer(entry.getKey(), entry.getValue());
+            daily.computeIfAbsent(day, d -> new HashMap<>()).merge(entry.getKey(), 1L, Long::sum);
+        }
+        pruneWindow();
+    }
+
+    public synchronized void remove(Long bookId) {
+        if (topCounts.containsKey(bookId)) {
+            // The next best book is unknown here, so reload on the next read
+            loaded = false;
+        }
+        for (Map<Long, Long> day : daily.values()) {
+            day.remove(bookId);
+        }
+    }
+
+    public synchronized void reload() {
+        loaded = false;
+        ensureLoaded();
+    }
+
+    private void offer(Long bookId, long count) {
+        Long previous = topCounts.get(bookId);
+        if (previous != null) {
+            ranking.remove(new AbstractMap.SimpleImmutableEntry<>(bookId, previous));
+        } else if (topCounts.size() >= capacity) {
+            Map.Entry<Long, Long> weakest = ranking.last();
+            if (RANKING.compare(new AbstractMap.SimpleImmutableEntry<>(bookId, count), weakest) >= 0) {
+                return;
+            }
+            ranking.pollLast();
+            topCounts.remove(weakest.getKey());
+        }
+        topCounts.put(bookId, count);
+        ranking.add(new AbstractMap.SimpleImmutableEntry<>(bookId, count));
+    }
+
+    private void pruneWindow() {
+        LocalDate oldest = LocalDate.now().minusDays(windowDays - 1);
+        daily.headMap(oldest, false).clear();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        long start = System.nanoTime();
+        topCounts.clear();
+        ranking.clear();
+        daily.clear();
+        LocalDate from = LocalDate.now().minusDays(windowDays - 1);
+        UnitOfWork.readOnly(() -> {
+            Session session = UnitOfWork.currentSession();
+            List<Object[]> top = session.createQuery(
+                            "SELECT b.id, b.borrowCount FROM Book b ORDER BY b.borrowCount DESC, b.id", Object[].class)
+                    .setMaxResults(capacity)
+                    .list();
+            for (Object[] row : top) {
+                offer((Long) row[0], (Long) row[1]);
+            }
+            List<Object[]> perDay = session.createQuery(
+                            "SELECT br.book.id, br.borrowDate, COUNT(br) FROM Borrowing br " +
+                                    "WHERE br.borrowDate >= :from GROUP BY br.book.id, br.borrowDate", Object[].class)
+                    .setParameter("from", from)
+                    .list();
+            for (Object[] row : perDay) {
+                daily.computeIfAbsent((LocalDate) row[1], d -> new HashMap<>()).put((Long) row[0], (Long) row[2]);
+            }
+        });
+        loaded = true;
+        logger.info("Borrow leaderboard loaded: top {} books, {} days of history in {} ms",
+                topCounts.size(), daily.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,198 @@
+package com.phuonglinh.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compressed set of non-negative int IDs in the style of a roaring bitmap. IDs are grouped by
+ * their high 16 bits; each group keeps the low 16 bits in a sorted array while it is sparse and
+ * switches to a 65536-bit bitmap once it holds more than {@value #ARRAY_MAX} IDs. Not
+ * thread-safe; callers guard it.
+ */
+final class IdBitmap {
+    private static final int ARRAY_MAX = 4096;
+
+    private final Map<Integer, Container> containers = new HashMap<>();
+    private int cardinality;
+
+    boolean contains(int id) {
+        Container container = containers.get(id >>> 16);
+        return container != null && container.contains((char) id);
+    }
+
+    /**
+     * Returns true if the ID was not present before.
+     */
+    boolean add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative ID: " + id);
+        }
+        int high = id >>> 16;
+        Container container = containers.get(high);
+        if (container == null) {
+            container = new ArrayContainer();
+        }
+        int before = container.cardinality();
+        container = container.add((char) id);
+        containers.put(high, container);
+        if (container.cardinality() == before) {
+            return false;
+        }
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * Returns true if the ID was present.
+     */
+    boolean remove(int id) {
+        int high = id >>> 16;
+        Container container = containers.get(high);
+        if (container == null || !container.contains((char) id)) {
+            return false;
+        }
+        container = container.remove((char) id);
+        if (container.cardinality() == 0) {
+            containers.remove(high);
+        } else {
+            containers.put(high, container);
+        }
+        cardinality--;
+        return true;
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    long sizeInBytes() {
+        long bytes = 0;
+        for (Container container : containers.values()) {
+            bytes += container.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private interface Container {
+        boolean contains(char low);
+
+        Container add(char low);
+
+        Container remove(char low);
+
+        int cardinality();
+
+        long sizeInBytes();
+    }
+
+    private static final class ArrayContainer implements Container {
+        private char[] values = new char[4];
+        private int size;
+
+        @Override
+        public boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        @Override
+        public Container add(char low) {
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index >= 0) {
+                return this;
+            }
+            if (size == ARRAY_MAX) {
+                return toBitmap().add(low);
+            }
+            index = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, values.length * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = low;
+            size++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char low) {
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        public int cardinality() {
+            return size;
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return values.length * 2L;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        private final long[] words = new long[1024];
+        private int size;
+
+        @Override
+        public boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        public Container add(char low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before | (1L << low);
+            if (before != words[low >>> 6]) {
+                size++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before & ~(1L << low);
+            if (before != words[low >>> 6]) {
+                size--;
+            }
+            // Convert back well below the threshold so a group hovering around it does not flip-flop
+            return size <= ARRAY_MAX / 2 ? toArray() : this;
+        }
+
+        @Override
+        public int cardinality() {
+            return size;
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return words.length * 8L;
+        }
+
+        private ArrayContainer toArray() {
+            ArrayContainer array = new ArrayContainer();
+            for (int word = 0; word < words.length; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    array.add((char) (word * 64 + Long.numberOfTrailingZeros(bits)));
+                    bits &= bits - 1;
+                }
+            }
+            return array;
+        }
+    }
+}
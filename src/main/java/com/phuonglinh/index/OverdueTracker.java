@@ -0,0 +1,284 @@
+package com.phuonglinh.index;
+
+import com.phuonglinh.dto.OverdueItem;
+import com.phuonglinh.enums.BorrowingStatus;
+import com.phuonglinh.util.UnitOfWork;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Active borrowings bucketed by due date, so overdue lookups cost O(log days + result) instead of
+ * a table scan. The borrowing service keeps it current after commit, and a background job
+ * reloads it every {@code lms.overdue.resyncMinutes} to pick up changes made outside this
+ * process. Until then it may list borrowings that are no longer overdue, so callers re-check
+ * status and due date when they load the rows. Another background job publishes borrowings to
+ * registered listeners on the first run after they become overdue.
+ */
+public class OverdueTracker {
+    private static final Logger logger = LoggerFactory.getLogger(OverdueTracker.class);
+    private static final OverdueTracker INSTANCE = new OverdueTracker(
+            Long.getLong("lms.overdue.checkMinutes", 60),
+            Long.getLong("lms.overdue.resyncMinutes", 10));
+
+    private final long checkMinutes;
+    private final long resyncMinutes;
+    // Serializes reloads, which read the database without holding the tracker's monitor
+    private final Object reloadLock = new Object();
+    private final NavigableMap<LocalDate, Map<Long, OverdueItem>> buckets = new TreeMap<>();
+    private final Map<Long, OverdueItem> byId = new HashMap<>();
+    private final List<Consumer<List<OverdueItem>>> listeners = new CopyOnWriteArrayList<>();
+    // Due dates before this day have already been published
+    private LocalDate publishedBefore;
+    // Borrowings tracked (or untracked, mapped to null) while a reload reads its snapshot
+    private Map<Long, OverdueItem> reloadChanges;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean loaded;
+
+    OverdueTracker(long checkMinutes, long resyncMinutes) {
+        this.checkMinutes = checkMinutes;
+        this.resyncMinutes = resyncMinutes;
+    }
+
+    public static OverdueTracker getInstance() {
+        return INSTANCE;
+    }
+
+    public void addListener(Consumer<List<OverdueItem>> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<List<OverdueItem>> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns active borrowings due before {@code referenceDate}, oldest due date first.
+     */
+    public List<OverdueItem> overdue(LocalDate referenceDate) {
+        ensureLoaded();
+        List<OverdueItem> items = new ArrayList<>();
+        synchronized (this) {
+            for (Map<Long, OverdueItem> bucket : buckets.headMap(referenceDate, false).values()) {
+                items.addAll(bucket.values());
+            }
+        }
+        return items;
+    }
+
+    public List<Long> overdueBorrowingIds(LocalDate referenceDate) {
+        List<Long> ids = new ArrayList<>();
+        for (OverdueItem item : overdue(referenceDate)) {
+            ids.add(item.getBorrowingId());
+        }
+        return ids;
+    }
+
+    public List<Long> overdueBookIds(LocalDate referenceDate) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (OverdueItem item : overdue(referenceDate)) {
+            ids.add(item.getBookId());
+        }
+        return new ArrayList<>(ids);
+    }
+
+    public synchronized void track(OverdueItem item) {
+        if (!loaded && reloadChanges == null) {
+            return; // the first read loads every active borrowing
+        }
+        remove(item.getBorrowingId());
+        add(item);
+        if (reloadChanges != null) {
+            reloadChanges.put(item.getBorrowingId(), item);
+        }
+    }
+
+    public synchronized void untrack(Long borrowingId) {
+        remove(borrowingId);
+        if (reloadChanges != null) {
+            reloadChanges.put(borrowingId, null);
+        }
+    }
+
+    public synchronized void untrackAll(Collection<Long> borrowingIds) {
+        for (Long id : borrowingIds) {
+            untrack(id);
+        }
+    }
+
+    public synchronized void reschedule(Long borrowingId, LocalDate newDueDate) {
+        OverdueItem item = byId.get(borrowingId);
+        if (item != null) {
+            track(item.withDueDate(newDueDate));
+        }
+    }
+
+    public int size() {
+        ensureLoaded();
+        synchronized (this) {
+            return byId.size();
+        }
+    }
+
+    /**
+     * Reloads active borrowings from the database. Lookups keep answering from the previous state
+     * meanwhile, and changes tracked while the snapshot is read are replayed onto it.
+     */
+    public void reload() {
+        load(true);
+    }
+
+    /**
+     * Publishes borrowings that became overdue since the previous run. Runs on the background
+     * schedule, and can also be called directly.
+     */
+    public void publishNewlyOverdue() {
+        ensureLoaded();
+        List<OverdueItem> items = new ArrayList<>();
+        synchronized (this) {
+            LocalDate today = LocalDate.now();
+            if (!today.isAfter(publishedBefore)) {
+                return;
+            }
+            for (Map<Long, OverdueItem> bucket : buckets.subMap(publishedBefore, true, today, false).values()) {
+                items.addAll(bucket.values());
+            }
+            publishedBefore = today;
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+        logger.info("{} borrowings became overdue", items.size());
+        for (Consumer<List<OverdueItem>> listener : listeners) {
+            try {
+                listener.accept(items);
+            } catch (RuntimeException e) {
+                logger.warn("Overdue listener failed", e);
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load(false);
+        }
+    }
+
+    private void load(boolean force) {
+        synchronized (reloadLock) {
+            if (loaded && !force) {
+                return;
+            }
+            synchronized (this) {
+                reloadChanges = new HashMap<>();
+            }
+
+            long start = System.nanoTime();
+            Map<Long, OverdueItem> fresh = new HashMap<>();
+            try {
+                UnitOfWork.readOnly(() -> {
+                    try (ScrollableResults rows = UnitOfWork.currentSession()
+                            .createQuery("SELECT br.id, br.book.id, br.member.id, br.dueDate FROM Borrowing br " +
+                                    "WHERE br.status = :status")
+                            .setParameter("status", BorrowingStatus.BORROWED)
+                            .setFetchSize(1000)
+                            .scroll(ScrollMode.FORWARD_ONLY)) {
+                        while (rows.next()) {
+                            OverdueItem item = new OverdueItem((Long) rows.get(0), (Long) rows.get(1),
+                                    (Long) rows.get(2), (LocalDate) rows.get(3));
+                            fresh.put(item.getBorrowingId(), item);
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    reloadChanges = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                for (Map.Entry<Long, OverdueItem> change : reloadChanges.entrySet()) {
+                    if (change.getValue() == null) {
+                        fresh.remove(change.getKey());
+                    } else {
+                        fresh.put(change.getKey(), change.getValue());
+                    }
+                }
+                reloadChanges = null;
+                byId.clear();
+                buckets.clear();
+                for (OverdueItem item : fresh.values()) {
+                    add(item);
+                }
+                if (publishedBefore == null) {
+                    publishedBefore = LocalDate.now();
+                }
+                loaded = true;
+                logger.info("Overdue tracker loaded: {} active borrowings over {} due dates in {} ms",
+                        byId.size(), buckets.size(), (System.nanoTime() - start) / 1_000_000);
+            }
+            startScheduler();
+        }
+    }
+
+    private void add(OverdueItem item) {
+        byId.put(item.getBorrowingId(), item);
+        buckets.computeIfAbsent(item.getDueDate(), d -> new LinkedHashMap<>()).put(item.getBorrowingId(), item);
+    }
+
+    private void remove(Long borrowingId) {
+        OverdueItem item = byId.remove(borrowingId);
+        if (item == null) {
+            return;
+        }
+        Map<Long, OverdueItem> bucket = buckets.get(item.getDueDate());
+        bucket.remove(borrowingId);
+        if (bucket.isEmpty()) {
+            buckets.remove(item.getDueDate());
+        }
+    }
+
+    private void startScheduler() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "overdue-tracker");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                publishNewlyOverdue();
+            } catch (RuntimeException e) {
+                logger.warn("Overdue publishing failed", e);
+            }
+        }, checkMinutes, checkMinutes, TimeUnit.MINUTES);
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                logger.warn("Overdue tracker resync failed", e);
+            }
+        }, resyncMinutes, resyncMinutes, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,75 @@
+package com.phuonglinh.metrics;
+
+/**
+ * Running totals of database work done by the current thread, fed by {@link MetricsStatistics}.
+ * Operations and transactions take a copy when they start and report the difference.
+ */
+public final class Activity {
+    private static final ThreadLocal<Activity> CURRENT = ThreadLocal.withInitial(Activity::new);
+
+    long statements;
+    long queries;
+    long entityLoads;
+    long entityFetches;
+    long collectionFetches;
+
+    private Activity() {}
+
+    public static Activity snapshot() {
+        return CURRENT.get().copy();
+    }
+
+    static Activity current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns what this thread has done since {@code start} was taken.
+     */
+    public static Activity since(Activity start) {
+        Activity now = CURRENT.get();
+        Activity delta = new Activity();
+        delta.statements = now.statements - start.statements;
+        delta.queries = now.queries - start.queries;
+        delta.entityLoads = now.entityLoads - start.entityLoads;
+        delta.entityFetches = now.entityFetches - start.entityFetches;
+        delta.collectionFetches = now.collectionFetches - start.collectionFetches;
+        return delta;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getQueries() {
+        return queries;
+    }
+
+    public long getEntityLoads() {
+        return entityLoads;
+    }
+
+    public long getEntityFetches() {
+        return entityFetches;
+    }
+
+    public long getCollectionFetches() {
+        return collectionFetches;
+    }
+
+    private Activity copy() {
+        Activity copy = new Activity();
+        copy.statements = statements;
+        copy.queries = queries;
+        copy.entityLoads = entityLoads;
+        copy.entityFetches = entityFetches;
+        copy.collectionFetches = collectionFetches;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return statements + " statements, " + queries + " queries, " + entityLoads + " entity loads ("
+                + entityFetches + " fetched lazily), " + collectionFetches + " collection fetches";
+    }
+}
@@ -0,0 +1,11 @@
+package com.phuonglinh.metrics;
+
+public interface HistogramMXBean {
+    String getUnit();
+    long getCount();
+    double getMean();
+    long getMax();
+    long getP50();
+    long getP95();
+    long getP99();
+}
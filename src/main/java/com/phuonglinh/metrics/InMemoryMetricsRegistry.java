@@ -0,0 +1,40 @@
+package com.phuonglinh.metrics;
+
+import com.phuonglinh.dto.MetricStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Histogram histogram(String name, String unit) {
+        Histogram histogram = histograms.get(name);
+        if (histogram != null) {
+            return histogram;
+        }
+        Histogram created = new Histogram(name, unit);
+        Histogram existing = histograms.putIfAbsent(name, created);
+        if (existing != null) {
+            return existing;
+        }
+        onCreated(created);
+        return created;
+    }
+
+    @Override
+    public List<MetricStats> snapshot() {
+        List<MetricStats> stats = new ArrayList<>(histograms.size());
+        for (Histogram histogram : histograms.values()) {
+            stats.add(histogram.snapshot());
+        }
+        return stats;
+    }
+
+    // Called once per histogram, by the thread that created it
+    protected void onCreated(Histogram histogram) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.phuonglinh.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+
+/**
+ * Wraps a service so every call is an {@link OperationContext} named
+ * {@code <Interface>.<method>}. Each call records {@code operation.<name>} (microseconds) and
+ * {@code operation.<name>.statements}, and logs its database activity at DEBUG with the
+ * correlation ID. Calls that complete are then held to their {@link StatementBudget}.
+ */
+public final class Instrumented {
+    private static final Logger logger = LoggerFactory.getLogger(Instrumented.class);
+
+    private Instrumented() {}
+
+    public static <T> T service(Class<T> serviceInterface, T target) {
+        String prefix = serviceInterface.getSimpleName() + ".";
+        Object proxy = Proxy.newProxyInstance(serviceInterface.getClassLoader(), new Class<?>[]{serviceInterface},
+                (p, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.invoke(target, args);
+                    }
+                    String name = prefix + method.getName();
+                    OperationContext operation = OperationContext.begin(name);
+                    Object result;
+                    Activity activity;
+                    boolean failed = true;
+                    try {
+                        result = method.invoke(target, args);
+                        failed = false;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        long elapsedNanos = operation.getElapsedNanos();
+                        activity = operation.end();
+                        Metrics.histogram("operation." + name, "us").record(elapsedNanos / 1000);
+                        Metrics.histogram("operation." + name + ".statements", "count").record(activity.getStatements());
+                        logger.debug("[{}] {} {} in {} ms: {}", operation.getCorrelationId(), name,
+                                failed ? "failed" : "completed", elapsedNanos / 1_000_000, activity);
+                    }
+                    StatementAuditor.checkBudget(method, operation, activity);
+                    return result;
+                });
+        return serviceInterface.cast(proxy);
+    }
+}
@@ -0,0 +1,225 @@
+package com.phuonglinh.metrics;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.ServiceRegistryAwareService;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.service.spi.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Wraps the configured connection provider so every JDBC execution is timed into
+ * {@code jdbc.execute}, and executions slower than {@code lms.metrics.slowQueryMs} are logged
+ * with their SQL, bound parameters, operation and correlation ID. The wrapped provider's class
+ * name is read from {@value #TARGET_PROVIDER}; unwrapping reaches the wrapped provider, so pool
+ * statistics keep working.
+ */
+public class InstrumentedConnectionProvider
+        implements ConnectionProvider, Configurable, Stoppable, ServiceRegistryAwareService {
+    public static final String TARGET_PROVIDER = "lms.metrics.targetProvider";
+
+    private static final Logger slowLog = LoggerFactory.getLogger("com.phuonglinh.metrics.SlowQuery");
+    private static final long SLOW_QUERY_NANOS =
+            Long.getLong("lms.metrics.slowQueryMs", 200) * 1_000_000;
+    private static final int MAX_LOGGED_VALUE_LENGTH = 100;
+
+    private ConnectionProvider target;
+    private ServiceRegistryImplementor serviceRegistry;
+
+    @Override
+    public void injectServices(ServiceRegistryImplementor serviceRegistry) {
+        this.serviceRegistry = serviceRegistry;
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void configure(Map configurationValues) {
+        Object targetClass = configurationValues.get(TARGET_PROVIDER);
+        if (targetClass == null) {
+            throw new HibernateException(TARGET_PROVIDER + " is not set");
+        }
+        try {
+            target = (ConnectionProvider) Class.forName(targetClass.toString()).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new HibernateException("Cannot create connection provider " + targetClass, e);
+        }
+        if (target instanceof ServiceRegistryAwareService) {
+            ((ServiceRegistryAwareService) target).injectServices(serviceRegistry);
+        }
+        if (target instanceof Configurable) {
+            ((Configurable) target).configure(configurationValues);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (target instanceof Stoppable) {
+            ((Stoppable) target).stop();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = target.getConnection();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        if (Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof ConnectionHandler) {
+            target.closeConnection(((ConnectionHandler) Proxy.getInvocationHandler(connection)).connection);
+        } else {
+            target.closeConnection(connection);
+        }
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return target.supportsAggressiveRelease();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return unwrapType.isInstance(this) || target.isUnwrappableAs(unwrapType);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isInstance(this)) {
+            return unwrapType.cast(this);
+        }
+        if (target.isUnwrappableAs(unwrapType)) {
+            return target.unwrap(unwrapType);
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedConnectionProvider.invoke(connection, method, args);
+            String name = method.getName();
+            if (result instanceof CallableStatement || result instanceof PreparedStatement) {
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class : PreparedStatement.class;
+                return wrap(type, (Statement) result, (String) args[0]);
+            }
+            if (result instanceof Statement && name.equals("createStatement")) {
+                return wrap(Statement.class, (Statement) result, null);
+            }
+            return result;
+        }
+
+        private static Object wrap(Class<?> type, Statement statement, String sql) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private int batched;
+
+        StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch")) {
+                batched++;
+            } else if (name.startsWith("execute")) {
+                return timed(method, args);
+            }
+            return InstrumentedConnectionProvider.invoke(statement, method, args);
+        }
+
+        private Object timed(Method method, Object[] args) throws Throwable {
+            long start = System.nanoTime();
+            try {
+                return InstrumentedConnectionProvider.invoke(statement, method, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                Metrics.histogram("jdbc.execute", "us").record(elapsed / 1000);
+                if (elapsed >= SLOW_QUERY_NANOS) {
+                    String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+                    logSlow(elapsed, method.getName().equals("executeBatch") ? batched : 0, executed);
+                }
+                if (method.getName().equals("executeBatch")) {
+                    batched = 0;
+                }
+            }
+        }
+
+        private void logSlow(long elapsedNanos, int batchSize, String executedSql) {
+            String batch = batchSize > 0 ? " (batch of " + batchSize + ", last parameters shown)" : "";
+            slowLog.warn("[{}] Slow statement in {}: {} ms{}: {} | parameters {}",
+                    MDC.get("correlationId"), OperationContext.currentName(), elapsedNanos / 1_000_000, batch,
+                    executedSql, describeParameters());
+        }
+
+        private String describeParameters() {
+            StringBuilder sb = new StringBuilder("[");
+            for (Map.Entry<Integer, Object> entry : parameters.entrySet()) {
+                if (sb.length() > 1) {
+                    sb.append(", ");
+                }
+                sb.append(entry.getKey()).append('=').append(describe(entry.getValue()));
+            }
+            return sb.append(']').toString();
+        }
+
+        private static String describe(Object value) {
+            if (value == null) {
+                return "NULL";
+            }
+            if (value instanceof byte[]) {
+                return "<" + ((byte[]) value).length + " bytes>";
+            }
+            String text = value instanceof Object[] ? Arrays.toString((Object[]) value) : String.valueOf(value);
+            return text.length() > MAX_LOGGED_VALUE_LENGTH
+                    ? text.substring(0, MAX_LOGGED_VALUE_LENGTH) + "..." : text;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.phuonglinh.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Publishes every histogram as an MXBean named {@code com.phuonglinh.lms:type=Metrics,name=<name>}
+ * on the platform MBean server, next to the HikariCP and JCache beans.
+ */
+public class JmxMetricsRegistry extends InMemoryMetricsRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(JmxMetricsRegistry.class);
+    private static final String DOMAIN = "com.phuonglinh.lms";
+
+    private final MBeanServer server;
+
+    public JmxMetricsRegistry() {
+        this(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    public JmxMetricsRegistry(MBeanServer server) {
+        this.server = server;
+    }
+
+    @Override
+    protected void onCreated(Histogram histogram) {
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=Metrics,name=" + ObjectName.quote(histogram.getName()));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new HistogramBean(histogram), name);
+            }
+        } catch (JMException e) {
+            logger.warn("Could not register metric {} with JMX: {}", histogram.getName(), e.getMessage());
+        }
+    }
+
+    private static class HistogramBean implements HistogramMXBean {
+        private final Histogram histogram;
+
+        HistogramBean(Histogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public String getUnit() {
+            return histogram.getUnit();
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        @Override
+        public double getMean() {
+            long count = histogram.getCount();
+            return count == 0 ? 0 : (double) histogram.getSum() / count;
+        }
+
+        @Override
+        public long getMax() {
+            return histogram.getMax();
+        }
+
+        @Override
+        public long getP50() {
+            return histogram.percentile(0.50);
+        }
+
+        @Override
+        public long getP95() {
+            return histogram.percentile(0.95);
+        }
+
+        @Override
+        public long getP99() {
+            return histogram.percentile(0.99);
+        }
+    }
+}
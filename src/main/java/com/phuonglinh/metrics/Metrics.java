@@ -0,0 +1,47 @@
+package com.phuonglinh.metrics;
+
+import com.phuonglinh.dto.MetricStats;
+
+import java.util.List;
+
+/**
+ * Holds the process-wide {@link MetricsRegistry}. {@code -Dlms.metrics.registry} selects it:
+ * {@code jmx} (default), {@code memory}, or the class name of a custom implementation with a
+ * public no-arg constructor.
+ */
+public final class Metrics {
+    private static volatile MetricsRegistry registry = create(System.getProperty("lms.metrics.registry", "jmx"));
+
+    private Metrics() {}
+
+    public static MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    public static void setRegistry(MetricsRegistry registry) {
+        Metrics.registry = registry;
+    }
+
+    public static Histogram histogram(String name, String unit) {
+        return registry.histogram(name, unit);
+    }
+
+    public static List<MetricStats> snapshot() {
+        return registry.snapshot();
+    }
+
+    private static MetricsRegistry create(String kind) {
+        switch (kind.toLowerCase()) {
+            case "jmx":
+                return new JmxMetricsRegistry();
+            case "memory":
+                return new InMemoryMetricsRegistry();
+            default:
+                try {
+                    return (MetricsRegistry) Class.forName(kind).getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException | ClassCastException e) {
+                    throw new IllegalArgumentException("Invalid lms.metrics.registry: " + kind, e);
+                }
+        }
+    }
+}
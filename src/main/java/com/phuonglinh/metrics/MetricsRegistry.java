@@ -0,0 +1,19 @@
+package com.phuonglinh.metrics;
+
+import com.phuonglinh.dto.MetricStats;
+
+import java.util.List;
+
+/**
+ * Where instrumentation records its measurements. Implementations decide how metrics are
+ * published; {@link Metrics} picks one from {@code lms.metrics.registry}.
+ */
+public interface MetricsRegistry {
+
+    /**
+     * Returns the histogram with this name, creating it on first use.
+     */
+    Histogram histogram(String name, String unit);
+
+    List<MetricStats> snapshot();
+}
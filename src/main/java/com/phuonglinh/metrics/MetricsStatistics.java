@@ -0,0 +1,133 @@
+package com.phuonglinh.metrics;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+import javax.persistence.NamedNativeQueries;
+import javax.persistence.NamedNativeQuery;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.metamodel.EntityType;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate's statistics, additionally attributing work to the thread that did it: statements,
+ * queries, entity loads and collection fetches are added to {@link Activity}, each query's time
+ * goes to a {@code query.<named query>} or {@code query.adhoc.<entity>} histogram, and every
+ * transaction records how much it did. Installed through {@code hibernate.stats.factory}; it only
+ * sees work while statistics are enabled.
+ */
+public class MetricsStatistics extends StatisticsImpl {
+    private static final ThreadLocal<Activity> TRANSACTION_START = new ThreadLocal<>();
+    private static final Pattern ROOT_ENTITY = Pattern.compile("\\bfrom\\s+([A-Za-z_][\\w.]*)", Pattern.CASE_INSENSITIVE);
+
+    private final SessionFactoryImplementor sessionFactory;
+    private volatile Map<String, String> queryNames;
+
+    public MetricsStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void openSession() {
+        super.openSession();
+        TRANSACTION_START.set(Activity.snapshot());
+    }
+
+    @Override
+    public void prepareStatement() {
+        super.prepareStatement();
+        Activity.current().statements++;
+    }
+
+    @Override
+    public void loadEntity(String entityName) {
+        super.loadEntity(entityName);
+        Activity.current().entityLoads++;
+    }
+
+    @Override
+    public void fetchEntity(String entityName) {
+        super.fetchEntity(entityName);
+        Activity.current().entityLoads++;
+        Activity.current().entityFetches++;
+    }
+
+    @Override
+    public void fetchCollection(String role) {
+        super.fetchCollection(role);
+        Activity.current().collectionFetches++;
+    }
+
+    @Override
+    public void queryExecuted(String query, int rows, long time) {
+        super.queryExecuted(query, rows, time);
+        Activity.current().queries++;
+        Metrics.histogram("query." + queryName(query), "ms").record(time);
+    }
+
+    @Override
+    public void endTransaction(boolean success) {
+        super.endTransaction(success);
+        Activity start = TRANSACTION_START.get();
+        if (start != null) {
+            Activity done = Activity.since(start);
+            Metrics.histogram("transaction.statements", "count").record(done.statements);
+            Metrics.histogram("transaction.entityLoads", "count").record(done.entityLoads);
+            Metrics.histogram("transaction.collectionFetches", "count").record(done.collectionFetches);
+        }
+        TRANSACTION_START.set(Activity.snapshot());
+    }
+
+    // Criteria and inline queries are grouped by root entity; the slow-query log has their SQL
+    private String queryName(String query) {
+        Map<String, String> names = queryNames;
+        if (names == null) {
+            names = collectQueryNames();
+            queryNames = names;
+        }
+        String name = names.get(query);
+        if (name != null) {
+            return name;
+        }
+        Matcher root = ROOT_ENTITY.matcher(query);
+        return root.find() ? "adhoc." + root.group(1) : "adhoc";
+    }
+
+    private Map<String, String> collectQueryNames() {
+        Map<String, String> names = new HashMap<>();
+        for (EntityType<?> entity : sessionFactory.getMetamodel().getEntities()) {
+            Class<?> type = entity.getJavaType();
+            NamedQueries queries = type.getAnnotation(NamedQueries.class);
+            if (queries != null) {
+                for (NamedQuery query : queries.value()) {
+                    names.put(query.query(), query.name());
+                }
+            }
+            NamedQuery query = type.getAnnotation(NamedQuery.class);
+            if (query != null) {
+                names.put(query.query(), query.name());
+            }
+            NamedNativeQueries nativeQueries = type.getAnnotation(NamedNativeQueries.class);
+            if (nativeQueries != null) {
+                for (NamedNativeQuery nativeQuery : nativeQueries.value()) {
+                    names.put(nativeQuery.query(), nativeQuery.name());
+                }
+            }
+        }
+        return names;
+    }
+
+    public static class Factory implements StatisticsFactory {
+        @Override
+        public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+            return new MetricsStatistics(sessionFactory);
+        }
+    }
+}
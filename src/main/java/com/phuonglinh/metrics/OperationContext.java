@@ -0,0 +1,68 @@
+package com.phuonglinh.metrics;
+
+import org.slf4j.MDC;
+
+/**
+ * The service operation running on the current thread. Operations nest: a service calling
+ * another service starts an inner operation, and {@link #currentName()} reports the innermost.
+ */
+public final class OperationContext {
+    private static final ThreadLocal<OperationContext> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final String correlationId;
+    private final OperationContext parent;
+    private final Activity start;
+    private final long startNanos;
+
+    private OperationContext(String name, OperationContext parent) {
+        this.name = name;
+        this.parent = parent;
+        this.correlationId = MDC.get("correlationId");
+        this.start = Activity.snapshot();
+        this.startNanos = System.nanoTime();
+    }
+
+    public static OperationContext begin(String name) {
+        OperationContext context = new OperationContext(name, CURRENT.get());
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static OperationContext current() {
+        return CURRENT.get();
+    }
+
+    public static String currentName() {
+        OperationContext context = CURRENT.get();
+        return context != null ? context.name : "-";
+    }
+
+    /**
+     * Ends this operation and returns what it did on the database.
+     */
+    public Activity end() {
+        if (parent != null) {
+            CURRENT.set(parent);
+        } else {
+            CURRENT.remove();
+        }
+        return Activity.since(start);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public boolean isOutermost() {
+        return parent == null;
+    }
+}
@@ -0,0 +1,158 @@
+package com.phuonglinh.metrics;
+
+import com.phuonglinh.enums.StatementCheckMode;
+import com.phuonglinh.exception.LibraryException;
+import com.phuonglinh.exception.StatementBudgetExceededException;
+import com.phuonglinh.exception.SuspectedNPlusOneException;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Watches the SQL each unit of work sends, for tests and staging. {@code -Dlms.statements.mode}
+ * is {@code off} (default), {@code warn} or {@code fail}. When on, it flags a SELECT whose shape
+ * (the SQL with literals and IN lists collapsed) runs {@code lms.statements.repeatThreshold}
+ * times in one unit of work as a suspected N+1, and {@link Instrumented} holds service methods
+ * to their {@link StatementBudget}. In fail mode these throw {@link SuspectedNPlusOneException}
+ * and {@link StatementBudgetExceededException} respectively.
+ */
+public class StatementAuditor implements StatementInspector {
+    private static final Logger logger = LoggerFactory.getLogger(StatementAuditor.class);
+    private static final ThreadLocal<Map<String, Integer>> SHAPES = new ThreadLocal<>();
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static volatile StatementCheckMode mode =
+            StatementCheckMode.valueOf(System.getProperty("lms.statements.mode", "off").toUpperCase());
+    private static final int REPEAT_THRESHOLD = Integer.getInteger("lms.statements.repeatThreshold", 10);
+
+    public static StatementCheckMode getMode() {
+        return mode;
+    }
+
+    public static void setMode(StatementCheckMode mode) {
+        StatementAuditor.mode = mode;
+    }
+
+    public static boolean isEnabled() {
+        return mode != StatementCheckMode.OFF;
+    }
+
+    /**
+     * Called by {@code UnitOfWork} around each outermost unit of work; SQL outside one is not
+     * tracked.
+     */
+    public static void beginUnit() {
+        if (isEnabled()) {
+            SHAPES.set(new HashMap<>());
+        }
+    }
+
+    public static void endUnit() {
+        SHAPES.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Map<String, Integer> shapes = SHAPES.get();
+        if (shapes == null || !isSelect(sql)) {
+            return sql;
+        }
+        String shape = shape(sql);
+        int count = shapes.merge(shape, 1, Integer::sum);
+        if (count == REPEAT_THRESHOLD) {
+            List<StackTraceElement> frames = applicationFrames();
+            String message = String.format("Suspected N+1 in %s: %d identical selects from %s: %s",
+                    OperationContext.currentName(), count, origin(frames), shape);
+            report(MDC.get("correlationId"), message, frames, SuspectedNPlusOneException::new);
+        }
+        return sql;
+    }
+
+    /**
+     * Checks what a finished service call issued against the method's budget.
+     */
+    static void checkBudget(Method method, OperationContext operation, Activity activity) {
+        if (!isEnabled()) {
+            return;
+        }
+        Integer budget = Integer.getInteger("lms.statements.budget." + operation.getName());
+        if (budget == null) {
+            StatementBudget annotation = method.getAnnotation(StatementBudget.class);
+            if (annotation == null) {
+                return;
+            }
+            budget = annotation.value();
+        }
+        if (activity.getStatements() > budget) {
+            report(operation.getCorrelationId(), String.format("%s issued %d statements, budget is %d: %s",
+                    operation.getName(), activity.getStatements(), budget, activity), null,
+                    StatementBudgetExceededException::new);
+        }
+    }
+
+    private static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private static boolean isSelect(String sql) {
+        String trimmed = sql.trim();
+        return trimmed.regionMatches(true, 0, "select", 0, 6) || trimmed.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    private static void report(String correlationId, String message, List<StackTraceElement> frames,
+                               Function<String, ? extends LibraryException> failure) {
+        if (mode == StatementCheckMode.FAIL) {
+            throw failure.apply(message);
+        }
+        if (frames == null) {
+            logger.warn("[{}] {}", correlationId, message);
+        } else {
+            Throwable trace = new Throwable("Statement issued here");
+            trace.setStackTrace(frames.toArray(new StackTraceElement[0]));
+            logger.warn("[{}] {}", correlationId, message, trace);
+        }
+    }
+
+    // The caller's stack without Hibernate, proxies and this package
+    private static List<StackTraceElement> applicationFrames() {
+        List<StackTraceElement> frames = new ArrayList<>();
+        for (StackTraceElement frame : new Throwable().getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith("com.phuonglinh.") && !className.startsWith("com.phuonglinh.metrics.")) {
+                frames.add(frame);
+            }
+        }
+        return frames;
+    }
+
+    // Prefer the repository method; a lazy load outside one shows up in the service instead
+    private static String origin(List<StackTraceElement> frames) {
+        for (StackTraceElement frame : frames) {
+            if (frame.getClassName().startsWith("com.phuonglinh.repository.")) {
+                return describe(frame);
+            }
+        }
+        return frames.isEmpty() ? "unknown caller" : describe(frames.get(0));
+    }
+
+    private static String describe(StackTraceElement frame) {
+        String className = frame.getClassName();
+        return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName()
+                + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,16 @@
+package com.phuonglinh.metrics;
+
+import java.lang.annotation.*;
+
+/**
+ * The most SQL statements one call to a service method may issue, checked by {@link Instrumented}
+ * when {@code lms.statements.mode} is {@code warn} or {@code fail}. Only calls through an
+ * instrumented service, such as those from {@code Services}, are checked. Overridden per method
+ * with {@code -Dlms.statements.budget.<Interface>.<method>=<max>}.
+ */
+@Documented
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+    int value();
+}
@@ -1,29 +1,62 @@
 package com.phuonglinh.repository;
 
 import com.phuonglinh.dto.BookSearchCriteria;
+import com.phuonglinh.dto.BookSummary;
+import com.phuonglinh.dto.CursorPage;
+import com.phuonglinh.dto.CursorRequest;
+import com.phuonglinh.dto.OverdueBookRow;
 import com.phuonglinh.dto.Page;
 import com.phuonglinh.dto.PageRequest;
 import com.phuonglinh.entity.Book;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface BookRepository {
     Book save(Book book);
     Optional<Book> findById(Long id);
+    List<Book> findAllById(List<Long> ids);
+    /**
+     * Loads those of {@code ids} that have a borrowing still out and due before
+     * {@code referenceDate}, in the order given.
+     */
+    List<Book> findOverdueById(List<Long> ids, LocalDate referenceDate);
+    List<Book> findForCheckout(Collection<Long> ids);
     List<Book> findAll();
+    Stream<Book> streamAll(int fetchSize);
+    void forEachChunk(int chunkSize, Consumer<List<Book>> consumer);
     void delete(Book book);
     boolean existsById(Long id);
 
     Page<Book> search(BookSearchCriteria criteria, PageRequest pageRequest);
+    CursorPage<Book> search(BookSearchCriteria criteria, CursorRequest cursorRequest);
     List<Book> findByAuthor(Long authorId, int limit);
     List<Book> findTopBorrowed(int limit);
+    List<Book> findTopBorrowedSince(LocalDate from, int limit);
+
+    // Projections for list views
+    Page<BookSummary> searchSummaries(BookSearchCriteria criteria, PageRequest pageRequest);
+    List<BookSummary> findSummariesByAuthor(Long authorId, int limit);
+    List<BookSummary> findTopBorrowedSummaries(int limit);
+    List<BookSummary> findTopBorrowedSummariesSince(LocalDate from, int limit);
 
     boolean hasActiveBorrowings(Long bookId);
     void changeAvailability(Long id, boolean available);
+    // Returns the number of books claimed; books that were no longer available are left untouched
+    int markBorrowed(Collection<Long> ids);
 
-    List<Book> findOverdueByDays(int days);
+    List<OverdueBookRow> findOverdueByDays(int days);
 
     void saveAll(List<Book> books, int batchSize);
-    void updateAvailabilityBatch(List<Long> bookIds, boolean available, int batchSize);
+    int updateAvailabilityBatch(List<Long> bookIds, boolean available, int batchSize);
+
+    /**
+     * Returns which of {@code isbns} already belong to a book.
+     */
+    Set<String> findExistingIsbns(Collection<String> isbns);
 }
@@ -1,24 +1,46 @@
 package com.phuonglinh.repository;
 
+import com.phuonglinh.dto.BorrowingRow;
+import com.phuonglinh.dto.BorrowingStatusRow;
+import com.phuonglinh.dto.OverdueBorrowingRow;
 import com.phuonglinh.dto.Page;
 import com.phuonglinh.dto.PageRequest;
 import com.phuonglinh.entity.Borrowing;
+import com.phuonglinh.enums.FetchPlan;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface BorrowingRepository {
     Borrowing save(Borrowing borrowing);
     Optional<Borrowing> findById(Long id);
+    List<Borrowing> findAllById(List<Long> ids);
+    List<Borrowing> findAllById(List<Long> ids, FetchPlan fetchPlan);
     List<Borrowing> findAll();
+    Stream<Borrowing> streamAll(int fetchSize);
+    void forEachChunk(int chunkSize, Consumer<List<Borrowing>> consumer);
     void delete(Borrowing borrowing);
     boolean existsById(Long id);
 
     Page<Borrowing> findByMember(Long memberId, PageRequest pageRequest);
+    Page<Borrowing> findByMember(Long memberId, PageRequest pageRequest, FetchPlan fetchPlan);
+    Page<BorrowingRow> findRowsByMember(Long memberId, PageRequest pageRequest);
     List<Borrowing> findActiveByBook(Long bookId);
+    List<Borrowing> findActiveByBook(Long bookId, FetchPlan fetchPlan);
     List<Borrowing> findOverdue(LocalDate referenceDate);
-    List<Borrowing> findOverdueByDaysSp(int days);
+    List<Borrowing> findOverdue(LocalDate referenceDate, FetchPlan fetchPlan);
+    /**
+     * Loads those of {@code ids} that are still borrowed and due before {@code referenceDate},
+     * in the order given.
+     */
+    List<Borrowing> findOverdueById(List<Long> ids, LocalDate referenceDate, FetchPlan fetchPlan);
+    List<OverdueBorrowingRow> findOverdueByDaysSp(int days);
 
     void saveAll(List<Borrowing> borrowings, int batchSize);
+    List<BorrowingStatusRow> findStatusRows(Collection<Long> ids);
+    int markReturned(Collection<Long> ids, LocalDate returnDate);
 }
@@ -0,0 +1,20 @@
+package com.phuonglinh.repository;
+
+import com.phuonglinh.dto.BulkResult;
+import com.phuonglinh.entity.Borrowing;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Bulk operations outside the persistence context: updates and scans run on a StatelessSession,
+ * inserts on a session cleared every batch. Each call runs in its own transaction and must not be
+ * made inside a UnitOfWork.
+ */
+public interface BulkRepository {
+    BulkResult bulkUpdate(String hql, Map<String, Object> parameters, List<Long> ids, int chunkSize);
+    BulkResult bulkInsert(List<?> entities, int batchSize);
+    BulkResult scanOverdue(LocalDate referenceDate, int chunkSize, Consumer<List<Borrowing>> consumer);
+}
@@ -1,21 +1,29 @@
 package com.phuonglinh.repository;
 
+import com.phuonglinh.dto.CursorPage;
+import com.phuonglinh.dto.CursorRequest;
 import com.phuonglinh.dto.Page;
 import com.phuonglinh.dto.PageRequest;
 import com.phuonglinh.entity.Member;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface MemberRepository {
     Member save(Member member);
     Optional<Member> findById(Long id);
     List<Member> findAll();
+    Stream<Member> streamAll(int fetchSize);
+    void forEachChunk(int chunkSize, Consumer<List<Member>> consumer);
     void delete(Member member);
     boolean existsById(Long id);
 
     Optional<Member> findByEmail(String email);
+    Optional<Long> findIdByEmail(String email);
     Page<Member> search(String searchTerm, PageRequest pageRequest);
+    CursorPage<Member> search(String searchTerm, CursorRequest cursorRequest);
 
     long countActiveBorrowings(Long memberId);
     boolean hasActiveBorrowings(Long memberId);
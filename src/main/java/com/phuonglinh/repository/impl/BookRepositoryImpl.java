@@ -1,28 +1,47 @@
 package com.phuonglinh.repository.impl;
 
 import com.phuonglinh.dto.BookSearchCriteria;
+import com.phuonglinh.dto.BookSummary;
+import com.phuonglinh.dto.CursorPage;
+import com.phuonglinh.dto.CursorRequest;
+import com.phuonglinh.dto.OverdueBookRow;
 import com.phuonglinh.dto.Page;
 import com.phuonglinh.dto.PageRequest;
 import com.phuonglinh.entity.Book;
 import com.phuonglinh.enums.BorrowingStatus;
+import com.phuonglinh.index.BorrowLeaderboard;
 import com.phuonglinh.repository.BookRepository;
-import com.phuonglinh.util.HibernateUtil;
+import com.phuonglinh.search.BookSearchIndex;
+import com.phuonglinh.util.CountEstimator;
+import com.phuonglinh.util.UnitOfWork;
 import org.hibernate.Session;
 import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.persistence.criteria.*;
-import java.sql.CallableStatement;
-import java.sql.Connection;
-import java.sql.ResultSet;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class BookRepositoryImpl implements BookRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(BookRepositoryImpl.class);
+    private static final String STREAM_ALL_QUERY = "FROM Book";
+    private static final ProcedureExecutor.Projection<OverdueBookRow> OVERDUE_BOOK = new ProcedureExecutor.Projection<>(
+            (rs, c) -> new OverdueBookRow(rs.getLong(c[0]), rs.getString(c[1]), rs.getString(c[2]), rs.getBoolean(c[3])),
+            "id", "title", "category", "available");
+    private static final int MAX_TEXT_HITS = Integer.getInteger("lms.search.maxHits", 1000);
 
     @Override
     public Book save(Book book) {
@@ -42,11 +61,33 @@ public class BookRepositoryImpl implements BookRepository {
         return Optional.ofNullable(getSession().get(Book.class, id));
     }
 
+    @Override
+    public List<Book> findForCheckout(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Read-only: availability and borrow counts change only through the conditional markBorrowed
+        return getSession().createQuery("FROM Book b WHERE b.id IN :ids", Book.class)
+                .setParameterList("ids", ids)
+                .setReadOnly(true)
+                .list();
+    }
+
     @Override
     public List<Book> findAll() {
         return getSession().createQuery("FROM Book", Book.class).list();
     }
 
+    @Override
+    public Stream<Book> streamAll(int fetchSize) {
+        return ScrollSupport.stream(Book.class, STREAM_ALL_QUERY, fetchSize);
+    }
+
+    @Override
+    public void forEachChunk(int chunkSize, Consumer<List<Book>> consumer) {
+        ScrollSupport.forEachChunk(Book.class, STREAM_ALL_QUERY, chunkSize, consumer);
+    }
+
     @Override
     public void delete(Book book) {
         getSession().delete(book);
@@ -63,20 +104,29 @@ public class BookRepositoryImpl implements BookRepository {
 
     @Override
     public Page<Book> search(BookSearchCriteria criteria, PageRequest pageRequest) {
+        return search(criteria, pageRequest, Book.class, (cb, root) -> root, this::findAllById);
+    }
+
+    @Override
+    public Page<BookSummary> searchSummaries(BookSearchCriteria criteria, PageRequest pageRequest) {
+        return search(criteria, pageRequest, BookSummary.class, this::summary, this::findSummariesById);
+    }
+
+    private <R> Page<R> search(BookSearchCriteria criteria, PageRequest pageRequest, Class<R> resultType,
+                               BiFunction<CriteriaBuilder, Root<Book>, Selection<? extends R>> selection,
+                               Function<List<Long>, List<R>> byIds) {
         Session session = getSession();
         CriteriaBuilder cb = session.getCriteriaBuilder();
+        BookSearchIndex.Hits hits = textHits(criteria);
+        if (hits != null && (pageRequest.getSorts() == null || pageRequest.getSorts().isEmpty())) {
+            return searchByRelevance(session, criteria, hits, pageRequest, byIds);
+        }
+        List<Long> textHits = ids(hits);
 
-        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
-        Root<Book> countRoot = countQuery.from(Book.class);
-        countQuery.select(cb.count(countRoot));
-        Predicate[] countPredicates = buildPredicates(cb, countRoot, criteria);
-        if (countPredicates.length > 0) countQuery.where(countPredicates);
-        long totalElements = Optional.ofNullable(session.createQuery(countQuery).uniqueResult()).orElse(0L);
-
-        CriteriaQuery<Book> dataQuery = cb.createQuery(Book.class);
+        CriteriaQuery<R> dataQuery = cb.createQuery(resultType);
         Root<Book> dataRoot = dataQuery.from(Book.class);
-        dataQuery.select(dataRoot);
-        Predicate[] dataPredicates = buildPredicates(cb, dataRoot, criteria);
+        dataQuery.select(selection.apply(cb, dataRoot));
+        Predicate[] dataPredicates = buildPredicates(cb, dataRoot, criteria, textHits);
         if (dataPredicates.length > 0) dataQuery.where(dataPredicates);
 
         if (pageRequest.getSorts() != null && !pageRequest.getSorts().isEmpty()) {
@@ -89,15 +139,139 @@ public class BookRepositoryImpl implements BookRepository {
             dataQuery.orderBy(orders);
         }
 
-        Query<Book> query = session.createQuery(dataQuery);
+        Query<R> query = session.createQuery(dataQuery);
         query.setFirstResult(pageRequest.getPage() * pageRequest.getSize());
-        query.setMaxResults(pageRequest.getSize());
+        query.setMaxResults(PagingSupport.maxResults(pageRequest));
+
+        Page<R> result = PagingSupport.toPage(session, query.list(), pageRequest,
+                countKey(criteria), s -> count(s, criteria, textHits));
+        result.setTruncated(hits != null && hits.isTruncated());
+        return result;
+    }
+
+    // Free-text results keep the index ranking; SQL only filters the ranked IDs by the other criteria,
+    // and without an exact count only as far as this page needs
+    private <R> Page<R> searchByRelevance(Session session, BookSearchCriteria criteria, BookSearchIndex.Hits hits,
+                                          PageRequest pageRequest, Function<List<Long>, List<R>> byIds) {
+        int page = pageRequest.getPage();
+        int size = pageRequest.getSize();
+        PageRequest.CountMode mode = pageRequest.getCountMode() != null
+                ? pageRequest.getCountMode() : PageRequest.CountMode.EXACT;
+        int from = page * size;
+
+        List<Long> ranked = rankedMatches(session, criteria, hits,
+                mode == PageRequest.CountMode.EXACT ? Integer.MAX_VALUE : from + size + 1);
+        List<Long> pageIds = ranked.subList(Math.min(from, ranked.size()), Math.min(from + size, ranked.size()));
+        List<R> content = pageIds.isEmpty() ? new ArrayList<>() : byIds.apply(pageIds);
+
+        Page<R> result;
+        if (mode == PageRequest.CountMode.EXACT) {
+            result = new Page<>(content, rankedTotal(criteria, hits, ranked), page, size);
+        } else {
+            boolean hasNext = ranked.size() > from + size;
+            if (mode == PageRequest.CountMode.NONE) {
+                result = new Page<>(content, page, size, hasNext);
+            } else {
+                long seen = (long) from + content.size() + (hasNext ? 1 : 0);
+                long estimate = CountEstimator.getInstance().estimate(countKey(criteria) + "|ranked", session,
+                        s -> rankedTotal(criteria, hits, rankedMatches(s, criteria, hits, Integer.MAX_VALUE)));
+                result = new Page<>(content, Math.max(estimate, seen), page, size, mode, hasNext);
+            }
+        }
+        result.setTruncated(hits.isTruncated());
+        return result;
+    }
+
+    private List<Long> rankedMatches(Session session, BookSearchCriteria criteria, BookSearchIndex.Hits hits, int limit) {
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        return IdListSupport.findFirst(hits.getIds(), chunk -> {
+            CriteriaQuery<Long> idQuery = cb.createQuery(Long.class);
+            Root<Book> idRoot = idQuery.from(Book.class);
+            idQuery.select(idRoot.get("id")).where(buildPredicates(cb, idRoot, criteria, chunk));
+            return session.createQuery(idQuery).list();
+        }, id -> id, limit);
+    }
+
+    // Past lms.search.maxHits only the index knows how many books match the text. That is the real
+    // total when no other criterion filters them; otherwise the matches among ranked hits are all we have.
+    private long rankedTotal(BookSearchCriteria criteria, BookSearchIndex.Hits hits, List<Long> ranked) {
+        if (hasFilters(criteria)) {
+            return ranked.size();
+        }
+        return hits.getTotal() - (hits.getIds().size() - ranked.size());
+    }
+
+    private boolean hasFilters(BookSearchCriteria criteria) {
+        return (criteria.getTitle() != null && !criteria.getTitle().trim().isEmpty())
+                || (criteria.getCategory() != null && !criteria.getCategory().trim().isEmpty())
+                || criteria.getAvailable() != null
+                || (criteria.getAuthorName() != null && !criteria.getAuthorName().trim().isEmpty())
+                || criteria.getCreatedFrom() != null
+                || criteria.getCreatedTo() != null;
+    }
+
+    private CompoundSelection<BookSummary> summary(CriteriaBuilder cb, Root<Book> root) {
+        return cb.construct(BookSummary.class, root.get("id"), root.get("title"), root.get("category"),
+                root.get("available"), root.get("isbn"));
+    }
+
+    private BookSearchIndex.Hits textHits(BookSearchCriteria criteria) {
+        if (criteria.getQuery() == null || criteria.getQuery().trim().isEmpty()) {
+            return null;
+        }
+        return BookSearchIndex.getInstance().search(criteria.getQuery(), MAX_TEXT_HITS);
+    }
+
+    private static List<Long> ids(BookSearchIndex.Hits hits) {
+        return hits != null ? hits.getIds() : null;
+    }
+
+    private long count(Session session, BookSearchCriteria criteria, List<Long> textHits) {
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<Book> countRoot = countQuery.from(Book.class);
+        countQuery.select(cb.count(countRoot));
+        Predicate[] countPredicates = buildPredicates(cb, countRoot, criteria, textHits);
+        if (countPredicates.length > 0) countQuery.where(countPredicates);
+        return Optional.ofNullable(session.createQuery(countQuery).uniqueResult()).orElse(0L);
+    }
 
-        return new Page<>(query.list(), totalElements, pageRequest.getPage(), pageRequest.getSize());
+    private String countKey(BookSearchCriteria criteria) {
+        return "Book.search|" + criteria.getQuery() + "|" + criteria.getTitle() + "|" + criteria.getCategory() + "|" + criteria.getAvailable()
+                + "|" + criteria.getAuthorName() + "|" + criteria.getCreatedFrom() + "|" + criteria.getCreatedTo();
     }
 
-    private Predicate[] buildPredicates(CriteriaBuilder cb, Root<Book> root, BookSearchCriteria criteria) {
+    @Override
+    public CursorPage<Book> search(BookSearchCriteria criteria, CursorRequest cursorRequest) {
+        Session session = getSession();
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        List<PageRequest.Sort> keys = PagingSupport.withIdTieBreaker(cursorRequest.getSorts());
+
+        CriteriaQuery<Book> dataQuery = cb.createQuery(Book.class);
+        Root<Book> dataRoot = dataQuery.from(Book.class);
+        dataQuery.select(dataRoot);
+        List<Predicate> predicates = new ArrayList<>(Arrays.asList(
+                buildPredicates(cb, dataRoot, criteria, ids(textHits(criteria)))));
+        if (cursorRequest.getCursor() != null) {
+            List<Object> lastKeys = PagingSupport.decodeCursor(cursorRequest.getCursor(), keys.size());
+            predicates.add(PagingSupport.seekPredicate(cb, dataRoot, keys, lastKeys));
+        }
+        if (!predicates.isEmpty()) dataQuery.where(predicates.toArray(new Predicate[0]));
+        dataQuery.orderBy(PagingSupport.toOrders(cb, dataRoot, keys));
+
+        // Fetch one extra row to find out whether another page follows
+        List<Book> rows = session.createQuery(dataQuery)
+                .setMaxResults(cursorRequest.getSize() + 1)
+                .list();
+        return PagingSupport.toCursorPage(session, Book.class, rows, keys, cursorRequest.getSize());
+    }
+
+    private Predicate[] buildPredicates(CriteriaBuilder cb, Root<Book> root, BookSearchCriteria criteria,
+                                        List<Long> textHits) {
         List<Predicate> predicates = new ArrayList<>();
+        if (textHits != null) {
+            predicates.add(textHits.isEmpty() ? cb.disjunction() : root.get("id").in(textHits));
+        }
         if (criteria.getTitle() != null && !criteria.getTitle().trim().isEmpty()) {
             predicates.add(cb.like(cb.lower(root.get("title")), "%" + criteria.getTitle().toLowerCase() + "%"));
         }
@@ -131,12 +305,88 @@ public class BookRepositoryImpl implements BookRepository {
 
     @Override
     public List<Book> findTopBorrowed(int limit) {
-        return getSession().getNamedQuery("Book.findTopBorrowed")
+        List<Long> ids = BorrowLeaderboard.getInstance().top(limit);
+        if (ids == null) {
+            return getSession().getNamedQuery("Book.findTopBorrowed")
+                    .setMaxResults(limit)
+                    .setCacheable(true)
+                    .list();
+        }
+        return findAllById(ids);
+    }
+
+    @Override
+    public List<Book> findTopBorrowedSince(LocalDate from, int limit) {
+        return findAllById(topBorrowedIdsSince(from, limit));
+    }
+
+    private List<Long> topBorrowedIdsSince(LocalDate from, int limit) {
+        List<Long> ids = BorrowLeaderboard.getInstance().topSince(from, limit);
+        if (ids != null) {
+            return ids;
+        }
+        return getSession().createQuery(
+                        "SELECT br.book.id FROM Borrowing br WHERE br.borrowDate >= :from " +
+                                "GROUP BY br.book.id ORDER BY COUNT(br) DESC, br.book.id", Long.class)
+                .setParameter("from", from)
+                .setMaxResults(limit)
+                .list();
+    }
+
+    @Override
+    public List<BookSummary> findSummariesByAuthor(Long authorId, int limit) {
+        return getSession().createNamedQuery("Book.findSummariesByAuthor", BookSummary.class)
+                .setParameter("authorId", authorId)
                 .setMaxResults(limit)
                 .setCacheable(true)
                 .list();
     }
 
+    @Override
+    public List<BookSummary> findTopBorrowedSummaries(int limit) {
+        List<Long> ids = BorrowLeaderboard.getInstance().top(limit);
+        if (ids == null) {
+            return getSession().createNamedQuery("Book.findTopBorrowedSummaries", BookSummary.class)
+                    .setMaxResults(limit)
+                    .setCacheable(true)
+                    .list();
+        }
+        return findSummariesById(ids);
+    }
+
+    @Override
+    public List<BookSummary> findTopBorrowedSummariesSince(LocalDate from, int limit) {
+        return findSummariesById(topBorrowedIdsSince(from, limit));
+    }
+
+    // Primary-key lookup that keeps the caller's ordering
+    @Override
+    public List<Book> findAllById(List<Long> ids) {
+        return IdListSupport.findAll(ids, chunk -> getSession()
+                .createQuery("FROM Book b WHERE b.id IN :ids", Book.class)
+                .setParameterList("ids", chunk)
+                .list(), Book::getId);
+    }
+
+    @Override
+    public List<Book> findOverdueById(List<Long> ids, LocalDate referenceDate) {
+        return IdListSupport.findAll(ids, chunk -> getSession()
+                .createQuery("FROM Book b WHERE b.id IN :ids AND EXISTS (SELECT br.id FROM Borrowing br " +
+                        "WHERE br.book = b AND br.status = :status AND br.dueDate < :referenceDate)", Book.class)
+                .setParameterList("ids", chunk)
+                .setParameter("status", BorrowingStatus.BORROWED)
+                .setParameter("referenceDate", referenceDate)
+                .list(), Book::getId);
+    }
+
+    private List<BookSummary> findSummariesById(List<Long> ids) {
+        return IdListSupport.findAll(ids, chunk -> getSession()
+                .createQuery("SELECT new com.phuonglinh.dto.BookSummary(b.id, b.title, b.category, b.available, b.isbn) " +
+                        "FROM Book b WHERE b.id IN :ids", BookSummary.class)
+                .setParameterList("ids", chunk)
+                .list(), BookSummary::getId);
+    }
+
     @Override
     public boolean hasActiveBorrowings(Long bookId) {
         Long count = getSession().createQuery(
@@ -149,34 +399,24 @@ public class BookRepositoryImpl implements BookRepository {
 
     @Override
     public void changeAvailability(Long id, boolean available) {
-        getSession().createQuery("UPDATE Book SET available = :available WHERE id = :id")
-                .setParameter("available", available)
-                .setParameter("id", id)
-                .executeUpdate();
-    }
-
-    @Override
-    public List<Book> findOverdueByDays(int days) {
-        List<Book> books = new ArrayList<>();
-        try {
-            Connection connection = getSession().doReturningWork(conn -> conn);
-            CallableStatement stmt = connection.prepareCall("{CALL GetOverdueBooks(?)}");
-            stmt.setInt(1, days);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Book book = new Book();
-                book.setId(rs.getLong("id"));
-                book.setTitle(rs.getString("title"));
-                book.setCategory(rs.getString("category"));
-                book.setAvailable(rs.getBoolean("available"));
-                books.add(book);
-            }
-            rs.close();
-            stmt.close();
-        } catch (Exception e) {
-            logger.error("Error calling stored procedure", e);
-        }
-        return books;
+        CacheSupport.update(getSession(), Book.class,
+                "UPDATE books SET available = ?, version = version + 1 WHERE id IN (%s)",
+                Collections.singletonList(available), Collections.singletonList(id));
+    }
+
+    @Override
+    public int markBorrowed(Collection<Long> ids) {
+        // Only rows still available are claimed; the version bump makes stale entity updates fail their check
+        return CacheSupport.update(getSession(), Book.class,
+                "UPDATE books SET available = FALSE, borrow_count = borrow_count + 1, version = version + 1 " +
+                        "WHERE id IN (%s) AND available = TRUE",
+                Collections.emptyList(), ids);
+    }
+
+    @Override
+    public List<OverdueBookRow> findOverdueByDays(int days) {
+        return ProcedureExecutor.list(getSession(), "{CALL GetOverdueBooks(?)}",
+                stmt -> stmt.setInt(1, days), OVERDUE_BOOK);
     }
 
     @Override
@@ -184,7 +424,7 @@ public class BookRepositoryImpl implements BookRepository {
         Session session = getSession();
         for (int i = 0; i < books.size(); i++) {
             session.save(books.get(i));
-            if (i % batchSize == 0) {
+            if ((i + 1) % batchSize == 0) {
                 session.flush();
                 session.clear();
             }
@@ -194,19 +434,28 @@ public class BookRepositoryImpl implements BookRepository {
     }
 
     @Override
-    public void updateAvailabilityBatch(List<Long> bookIds, boolean available, int batchSize) {
+    public int updateAvailabilityBatch(List<Long> bookIds, boolean available, int batchSize) {
         Session session = getSession();
+        int updated = 0;
         for (int i = 0; i < bookIds.size(); i += batchSize) {
             List<Long> batch = bookIds.subList(i, Math.min(i + batchSize, bookIds.size()));
-            session.createQuery("UPDATE Book SET available = :available WHERE id IN :ids")
-                    .setParameter("available", available)
-                    .setParameterList("ids", batch)
-                    .executeUpdate();
-            session.flush();
+            updated += CacheSupport.update(session, Book.class,
+                    "UPDATE books SET available = ?, version = version + 1 WHERE id IN (%s)",
+                    Collections.singletonList(available), batch);
         }
+        return updated;
+    }
+
+    @Override
+    public Set<String> findExistingIsbns(Collection<String> isbns) {
+        Session session = getSession();
+        return new HashSet<>(IdListSupport.queryInChunks(new ArrayList<>(isbns), chunk -> session
+                .createQuery("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns", String.class)
+                .setParameterList("isbns", chunk)
+                .list()));
     }
 
     private Session getSession() {
-        return HibernateUtil.getSessionFactory().getCurrentSession();
+        return UnitOfWork.currentSession();
     }
 }
@@ -1,27 +1,39 @@
 package com.phuonglinh.repository.impl;
 
+import com.phuonglinh.dto.BorrowingRow;
+import com.phuonglinh.dto.BorrowingStatusRow;
+import com.phuonglinh.dto.OverdueBorrowingRow;
 import com.phuonglinh.dto.Page;
 import com.phuonglinh.dto.PageRequest;
+import com.phuonglinh.entity.Book;
 import com.phuonglinh.entity.Borrowing;
+import com.phuonglinh.entity.Member;
+import com.phuonglinh.enums.BorrowingStatus;
+import com.phuonglinh.enums.FetchPlan;
 import com.phuonglinh.repository.BorrowingRepository;
-import com.phuonglinh.util.HibernateUtil;
+import com.phuonglinh.util.UnitOfWork;
 import org.hibernate.Session;
+import org.hibernate.graph.GraphSemantic;
 import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.persistence.criteria.*;
-import java.sql.CallableStatement;
-import java.sql.Connection;
-import java.sql.ResultSet;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class BorrowingRepositoryImpl implements BorrowingRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(BorrowingRepositoryImpl.class);
+    private static final ProcedureExecutor.Projection<OverdueBorrowingRow> OVERDUE_BORROWING = new ProcedureExecutor.Projection<>(
+            (rs, c) -> new OverdueBorrowingRow(rs.getLong(c[0]), rs.getDate(c[1]).toLocalDate(), rs.getDate(c[2]).toLocalDate()),
+            "id", "borrow_date", "due_date");
+    private static final String STREAM_ALL_QUERY = "SELECT b FROM Borrowing b JOIN FETCH b.member JOIN FETCH b.book";
 
     @Override
     public Borrowing save(Borrowing borrowing) {
@@ -41,6 +53,35 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
         return Optional.ofNullable(getCurrentSession().get(Borrowing.class, id));
     }
 
+    // Primary-key lookup that keeps the caller's ordering
+    @Override
+    public List<Borrowing> findAllById(List<Long> ids) {
+        return findAllById(ids, FetchPlan.NONE);
+    }
+
+    @Override
+    public List<Borrowing> findAllById(List<Long> ids, FetchPlan fetchPlan) {
+        return findByIdChunks(ids, fetchPlan, "FROM Borrowing b WHERE b.id IN :ids", query -> {});
+    }
+
+    @Override
+    public List<Borrowing> findOverdueById(List<Long> ids, LocalDate referenceDate, FetchPlan fetchPlan) {
+        return findByIdChunks(ids, fetchPlan,
+                "FROM Borrowing b WHERE b.id IN :ids AND b.status = :status AND b.dueDate < :referenceDate",
+                query -> query.setParameter("status", BorrowingStatus.BORROWED)
+                        .setParameter("referenceDate", referenceDate));
+    }
+
+    private List<Borrowing> findByIdChunks(List<Long> ids, FetchPlan fetchPlan, String hql,
+                                           Consumer<Query<Borrowing>> binder) {
+        Session session = getCurrentSession();
+        return IdListSupport.findAll(ids, chunk -> {
+            Query<Borrowing> query = session.createQuery(hql, Borrowing.class).setParameterList("ids", chunk);
+            binder.accept(query);
+            return applyFetchPlan(session, query, fetchPlan).list();
+        }, Borrowing::getId);
+    }
+
     @Override
     public List<Borrowing> findAll() {
         return getCurrentSession()
@@ -48,6 +89,17 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
                 .list();
     }
 
+    @Override
+    public Stream<Borrowing> streamAll(int fetchSize) {
+        // Associations are fetched up front: a StatelessSession cannot initialize lazy proxies later
+        return ScrollSupport.stream(Borrowing.class, STREAM_ALL_QUERY, fetchSize);
+    }
+
+    @Override
+    public void forEachChunk(int chunkSize, Consumer<List<Borrowing>> consumer) {
+        ScrollSupport.forEachChunk(Borrowing.class, STREAM_ALL_QUERY, chunkSize, consumer);
+    }
+
     @Override
     public void delete(Borrowing borrowing) {
         getCurrentSession().delete(borrowing);
@@ -65,16 +117,14 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
 
     @Override
     public Page<Borrowing> findByMember(Long memberId, PageRequest pageRequest) {
+        return findByMember(memberId, pageRequest, FetchPlan.NONE);
+    }
+
+    @Override
+    public Page<Borrowing> findByMember(Long memberId, PageRequest pageRequest, FetchPlan fetchPlan) {
         Session session = getCurrentSession();
         CriteriaBuilder cb = session.getCriteriaBuilder();
 
-        // Count query
-        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
-        Root<Borrowing> countRoot = countQuery.from(Borrowing.class);
-        countQuery.select(cb.count(countRoot));
-        countQuery.where(cb.equal(countRoot.get("member").get("id"), memberId));
-        Long total = session.createQuery(countQuery).uniqueResult();
-
         // Data query
         CriteriaQuery<Borrowing> dataQuery = cb.createQuery(Borrowing.class);
         Root<Borrowing> dataRoot = dataQuery.from(Borrowing.class);
@@ -84,52 +134,81 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
 
         Query<Borrowing> query = session.createQuery(dataQuery)
                 .setFirstResult(pageRequest.getPage() * pageRequest.getSize())
-                .setMaxResults(pageRequest.getSize());
+                .setMaxResults(PagingSupport.maxResults(pageRequest));
+
+        return PagingSupport.toPage(session, applyFetchPlan(session, query, fetchPlan).list(), pageRequest,
+                "Borrowing.findByMember|" + memberId + "|", s -> countByMember(s, memberId));
+    }
+
+    @Override
+    public Page<BorrowingRow> findRowsByMember(Long memberId, PageRequest pageRequest) {
+        Session session = getCurrentSession();
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+
+        CriteriaQuery<BorrowingRow> dataQuery = cb.createQuery(BorrowingRow.class);
+        Root<Borrowing> dataRoot = dataQuery.from(Borrowing.class);
+        Join<Borrowing, Member> member = dataRoot.join("member");
+        Join<Borrowing, Book> book = dataRoot.join("book");
+        dataQuery.select(cb.construct(BorrowingRow.class, dataRoot.get("id"), member.get("name"),
+                book.get("title"), dataRoot.get("dueDate"), dataRoot.get("status")));
+        dataQuery.where(cb.equal(member.get("id"), memberId));
+        applySorting(cb, dataQuery, dataRoot, pageRequest);
+
+        Query<BorrowingRow> query = session.createQuery(dataQuery)
+                .setFirstResult(pageRequest.getPage() * pageRequest.getSize())
+                .setMaxResults(PagingSupport.maxResults(pageRequest));
 
-        return new Page<>(query.list(), total != null ? total : 0, pageRequest.getPage(), pageRequest.getSize());
+        return PagingSupport.toPage(session, query.list(), pageRequest,
+                "Borrowing.findByMember|" + memberId + "|", s -> countByMember(s, memberId));
+    }
+
+    private Long countByMember(Session session, Long memberId) {
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<Borrowing> countRoot = countQuery.from(Borrowing.class);
+        countQuery.select(cb.count(countRoot));
+        countQuery.where(cb.equal(countRoot.get("member").get("id"), memberId));
+        return session.createQuery(countQuery).uniqueResult();
     }
 
     @Override
     public List<Borrowing> findActiveByBook(Long bookId) {
-        return getCurrentSession()
-                .getNamedQuery("Borrowing.findActiveByBook")
-                .setParameter("bookId", bookId)
-                .list();
+        return findActiveByBook(bookId, FetchPlan.NONE);
+    }
+
+    @Override
+    public List<Borrowing> findActiveByBook(Long bookId, FetchPlan fetchPlan) {
+        Session session = getCurrentSession();
+        Query<Borrowing> query = session.createNamedQuery("Borrowing.findActiveByBook", Borrowing.class)
+                .setParameter("bookId", bookId);
+        return applyFetchPlan(session, query, fetchPlan).list();
     }
 
     @Override
     public List<Borrowing> findOverdue(LocalDate referenceDate) {
-        return getCurrentSession()
-                .createNativeQuery(
-                        "SELECT * FROM borrowings WHERE status = 'BORROWED' AND due_date < ?",
-                        Borrowing.class
-                )
-                .setParameter(1, referenceDate)
-                .list();
+        return findOverdue(referenceDate, FetchPlan.NONE);
     }
 
+    // JPQL rather than native SQL so the fetch plan's entity graph applies
     @Override
-    public List<Borrowing> findOverdueByDaysSp(int days) {
-        List<Borrowing> borrowings = new ArrayList<>();
-        try {
-            Connection connection = getCurrentSession().doReturningWork(conn -> conn);
-            try (CallableStatement stmt = connection.prepareCall("{CALL GetOverdueBorrowings(?)}")) {
-                stmt.setInt(1, days);
-                try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        Borrowing borrowing = new Borrowing();
-                        borrowing.setId(rs.getLong("id"));
-                        borrowing.setBorrowDate(rs.getDate("borrow_date").toLocalDate());
-                        borrowing.setDueDate(rs.getDate("due_date").toLocalDate());
-                        // Có thể set thêm các field khác nếu cần
-                        borrowings.add(borrowing);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Error executing stored procedure GetOverdueBorrowings", e);
+    public List<Borrowing> findOverdue(LocalDate referenceDate, FetchPlan fetchPlan) {
+        Session session = getCurrentSession();
+        Query<Borrowing> query = session.createNamedQuery("Borrowing.findOverdue", Borrowing.class)
+                .setParameter("referenceDate", referenceDate);
+        return applyFetchPlan(session, query, fetchPlan).list();
+    }
+
+    private <T> Query<T> applyFetchPlan(Session session, Query<T> query, FetchPlan fetchPlan) {
+        if (fetchPlan != null && fetchPlan.getGraphName() != null) {
+            query.setHint(GraphSemantic.LOAD.getJpaHintName(), session.getEntityGraph(fetchPlan.getGraphName()));
         }
-        return borrowings;
+        return query;
+    }
+
+    @Override
+    public List<OverdueBorrowingRow> findOverdueByDaysSp(int days) {
+        return ProcedureExecutor.list(getCurrentSession(), "{CALL GetOverdueBorrowings(?)}",
+                stmt -> stmt.setInt(1, days), OVERDUE_BORROWING);
     }
 
     @Override
@@ -137,7 +216,7 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
         Session session = getCurrentSession();
         for (int i = 0; i < borrowings.size(); i++) {
             session.save(borrowings.get(i));
-            if (i % batchSize == 0) {
+            if ((i + 1) % batchSize == 0) {
                 session.flush();
                 session.clear();
             }
@@ -146,11 +225,31 @@ public class BorrowingRepositoryImpl implements BorrowingRepository {
         session.clear();
     }
 
+    @Override
+    public List<BorrowingStatusRow> findStatusRows(Collection<Long> ids) {
+        return getCurrentSession()
+                .createQuery("SELECT new com.phuonglinh.dto.BorrowingStatusRow(b.id, b.status, b.book.id) " +
+                        "FROM Borrowing b WHERE b.id IN :ids", BorrowingStatusRow.class)
+                .setParameterList("ids", ids)
+                .list();
+    }
+
+    @Override
+    public int markReturned(Collection<Long> ids, LocalDate returnDate) {
+        return getCurrentSession()
+                .createQuery("UPDATE VERSIONED Borrowing SET status = :returned, returnDate = :returnDate " +
+                        "WHERE id IN :ids AND status <> :returned")
+                .setParameter("returned", BorrowingStatus.RETURNED)
+                .setParameter("returnDate", returnDate)
+                .setParameterList("ids", ids)
+                .executeUpdate();
+    }
+
     private Session getCurrentSession() {
-        return HibernateUtil.getSessionFactory().getCurrentSession();
+        return UnitOfWork.currentSession();
     }
 
-    private void applySorting(CriteriaBuilder cb, CriteriaQuery<Borrowing> query, Root<Borrowing> root, PageRequest pageRequest) {
+    private void applySorting(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Borrowing> root, PageRequest pageRequest) {
         if (pageRequest.getSorts() != null && !pageRequest.getSorts().isEmpty()) {
             List<Order> orders = new ArrayList<>();
             for (PageRequest.Sort sort : pageRequest.getSorts()) {
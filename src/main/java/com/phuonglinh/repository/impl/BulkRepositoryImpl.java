@@ -0,0 +1,146 @@
+package com.phuonglinh.repository.impl;
+
+import com.phuonglinh.dto.BulkResult;
+import com.phuonglinh.entity.Borrowing;
+import com.phuonglinh.enums.BorrowingStatus;
+import com.phuonglinh.metrics.Activity;
+import com.phuonglinh.repository.BulkRepository;
+import com.phuonglinh.util.HibernateUtil;
+import com.phuonglinh.util.UnitOfWork;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.Query;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class BulkRepositoryImpl implements BulkRepository {
+
+    private static final String OVERDUE_QUERY = "SELECT br FROM Borrowing br " +
+            "JOIN FETCH br.member JOIN FETCH br.book " +
+            "WHERE br.status = :status AND br.dueDate < :referenceDate ORDER BY br.id";
+
+    /**
+     * Runs {@code hql}, which must restrict on {@code id IN :ids}, once per chunk of IDs.
+     */
+    @Override
+    public BulkResult bulkUpdate(String hql, Map<String, Object> parameters, List<Long> ids, int chunkSize) {
+        checkPositive(chunkSize);
+        return inTransaction(HibernateUtil.getSessionFactory()::openStatelessSession, session -> {
+            BulkResult result = new BulkResult();
+            for (int i = 0; i < ids.size(); i += chunkSize) {
+                Query<?> query = session.createQuery(hql);
+                parameters.forEach(query::setParameter);
+                int rows = query.setParameterList("ids", ids.subList(i, Math.min(i + chunkSize, ids.size())))
+                        .executeUpdate();
+                result.addStatements(1, rows);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Inserts through a regular session flushed and cleared every {@code batchSize} entities.
+     * A StatelessSession cannot insert entities with {@code @CreationTimestamp}, as Hibernate
+     * hands their value generators a {@code Session}; the second-level cache is bypassed instead.
+     */
+    @Override
+    public BulkResult bulkInsert(List<?> entities, int batchSize) {
+        checkPositive(batchSize);
+        SessionFactory sessionFactory = HibernateUtil.getSessionFactory();
+        return inTransaction(sessionFactory::openSession, session -> {
+            session.setJdbcBatchSize(batchSize);
+            session.setCacheMode(CacheMode.IGNORE);
+            Activity start = Activity.snapshot();
+            for (int i = 0; i < entities.size(); i++) {
+                session.persist(entities.get(i));
+                if ((i + 1) % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.flush();
+            // Counts what was prepared, including sequence calls and any batch the dialect or id
+            // generator split up; without statistics, assume full JDBC batches of batchSize rows
+            long statements = sessionFactory.getStatistics().isStatisticsEnabled()
+                    ? Activity.since(start).getStatements()
+                    : (entities.size() + batchSize - 1) / batchSize;
+            return new BulkResult(statements, entities.size(), 0);
+        });
+    }
+
+    @Override
+    public BulkResult scanOverdue(LocalDate referenceDate, int chunkSize, Consumer<List<Borrowing>> consumer) {
+        checkPositive(chunkSize);
+        long start = System.nanoTime();
+        BulkResult result = new BulkResult();
+        SessionFactory sessionFactory = HibernateUtil.getSessionFactory();
+        try (StatelessSession session = sessionFactory.openStatelessSession();
+             ScrollableResults rows = session.createQuery(OVERDUE_QUERY, Borrowing.class)
+                     .setParameter("status", BorrowingStatus.BORROWED)
+                     .setParameter("referenceDate", referenceDate)
+                     .setFetchSize(ScrollSupport.streamingFetchSize(sessionFactory))
+                     .setReadOnly(true)
+                     .scroll(ScrollMode.FORWARD_ONLY)) {
+            result.addStatements(1, 0);
+            List<Borrowing> chunk = new ArrayList<>(chunkSize);
+            while (rows.next()) {
+                chunk.add((Borrowing) rows.get(0));
+                if (chunk.size() == chunkSize) {
+                    result.addStatements(0, chunk.size());
+                    consumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                result.addStatements(0, chunk.size());
+                consumer.accept(chunk);
+            }
+        }
+        result.setElapsedMs((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private static <S extends SharedSessionContract> BulkResult inTransaction(Supplier<S> opener, Work<S> work) {
+        if (UnitOfWork.isActive()) {
+            throw new IllegalStateException("Bulk operations run in their own transaction; call them outside a UnitOfWork");
+        }
+        long start = System.nanoTime();
+        S session = opener.get();
+        try {
+            Transaction tx = session.beginTransaction();
+            try {
+                BulkResult result = work.execute(session);
+                tx.commit();
+                result.setElapsedMs((System.nanoTime() - start) / 1_000_000);
+                return result;
+            } catch (RuntimeException e) {
+                if (tx.getStatus().canRollback()) {
+                    tx.rollback();
+                }
+                throw e;
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    private static void checkPositive(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Chunk size and batch size must be positive");
+        }
+    }
+
+    private interface Work<S extends SharedSessionContract> {
+        BulkResult execute(S session);
+    }
+}
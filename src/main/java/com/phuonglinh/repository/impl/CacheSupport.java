@@ -0,0 +1,80 @@
+package com.phuonglinh.repository.impl;
+
+import org.hibernate.Session;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs UPDATEs on cached entities' tables over plain JDBC. Bulk HQL or native updates make
+ * Hibernate empty the entity's whole second-level cache region; here only the updated IDs are
+ * evicted, once right away and once when the transaction completes, and cached queries on the
+ * table are invalidated as they would be by an entity update.
+ */
+final class CacheSupport {
+
+    private CacheSupport() {}
+
+    /**
+     * Executes {@code sql}, whose {@code %s} is replaced by one placeholder per ID, binding
+     * {@code parameters} first and then the IDs. Returns the update count.
+     */
+    static int update(Session session, Class<?> entityClass, String sql, List<?> parameters,
+                      Collection<? extends Serializable> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        SessionImplementor source = session.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = source.getFactory();
+        CacheImplementor cache = factory.getCache();
+        List<Serializable> keys = new ArrayList<>(ids);
+        String[] spaces = Arrays.stream(factory.getMetamodel().entityPersister(entityClass).getQuerySpaces())
+                .map(Serializable::toString)
+                .toArray(String[]::new);
+        TimestampsCache timestamps = factory.getSessionFactoryOptions().isQueryCacheEnabled()
+                ? cache.getTimestampsCache() : null;
+
+        // Pending changes to these rows must reach the database before the UPDATE, as with HQL
+        session.flush();
+        if (timestamps != null) {
+            timestamps.preInvalidate(spaces, source);
+        }
+        String placeholders = String.join(", ", Collections.nCopies(keys.size(), "?"));
+        int updated = session.doReturningWork(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(String.format(sql, placeholders))) {
+                int index = 1;
+                for (Object parameter : parameters) {
+                    stmt.setObject(index++, parameter);
+                }
+                for (Serializable key : keys) {
+                    stmt.setObject(index++, key);
+                }
+                return stmt.executeUpdate();
+            }
+        });
+        evict(cache, entityClass, keys);
+        // Also after completion: a concurrent reader may have cached the old row in between
+        source.getActionQueue().registerProcess((success, completed) -> {
+            evict(cache, entityClass, keys);
+            if (timestamps != null) {
+                timestamps.invalidate(spaces, completed);
+            }
+        });
+        return updated;
+    }
+
+    private static void evict(CacheImplementor cache, Class<?> entityClass, List<Serializable> ids) {
+        for (Serializable id : ids) {
+            cache.evictEntityData(entityClass, id);
+        }
+    }
+}
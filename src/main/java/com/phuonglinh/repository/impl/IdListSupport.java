@@ -0,0 +1,58 @@
+package com.phuonglinh.repository.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Primary-key lookups for a list of IDs. The IN list goes out in chunks of
+ * {@code lms.query.maxInListSize} IDs to stay under driver and database limits on bind
+ * parameters, and rows come back in the caller's order with missing IDs skipped.
+ */
+final class IdListSupport {
+
+    private static final int MAX_IN_LIST_SIZE = Integer.getInteger("lms.query.maxInListSize", 1000);
+
+    private IdListSupport() {}
+
+    /**
+     * Runs {@code chunkQuery} once per chunk of {@code keys} and concatenates the results, for
+     * lookups by keys other than the primary key.
+     */
+    static <K, T> List<T> queryInChunks(List<K> keys, Function<List<K>, List<T>> chunkQuery) {
+        List<T> rows = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += MAX_IN_LIST_SIZE) {
+            rows.addAll(chunkQuery.apply(keys.subList(from, Math.min(from + MAX_IN_LIST_SIZE, keys.size()))));
+        }
+        return rows;
+    }
+
+    static <T> List<T> findAll(List<Long> ids, Function<List<Long>, List<T>> chunkQuery, Function<T, Long> idOf) {
+        return findFirst(ids, chunkQuery, idOf, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #findAll} but stops querying once {@code limit} rows are found, so a caller that
+     * only needs the first rows in ID order does not pay for the whole list.
+     */
+    static <T> List<T> findFirst(List<Long> ids, Function<List<Long>, List<T>> chunkQuery, Function<T, Long> idOf,
+                                 int limit) {
+        List<T> rows = new ArrayList<>(Math.min(ids.size(), limit));
+        for (int from = 0; from < ids.size() && rows.size() < limit; from += MAX_IN_LIST_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IN_LIST_SIZE, ids.size()));
+            Map<Long, T> byId = new HashMap<>();
+            for (T row : chunkQuery.apply(chunk)) {
+                byId.put(idOf.apply(row), row);
+            }
+            for (Long id : chunk) {
+                T row = byId.get(id);
+                if (row != null && rows.size() < limit) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+}
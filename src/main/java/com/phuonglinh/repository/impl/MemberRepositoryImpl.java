@@ -1,11 +1,13 @@
 package com.phuonglinh.repository.impl;
 
+import com.phuonglinh.dto.CursorPage;
+import com.phuonglinh.dto.CursorRequest;
 import com.phuonglinh.dto.Page;
 import com.phuonglinh.dto.PageRequest;
 import com.phuonglinh.entity.Member;
 import com.phuonglinh.enums.BorrowingStatus;
 import com.phuonglinh.repository.MemberRepository;
-import com.phuonglinh.util.HibernateUtil;
+import com.phuonglinh.util.UnitOfWork;
 import org.hibernate.Session;
 import org.hibernate.query.Query;
 import org.slf4j.Logger;
@@ -15,10 +17,13 @@ import javax.persistence.criteria.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class MemberRepositoryImpl implements MemberRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(MemberRepositoryImpl.class);
+    private static final String STREAM_ALL_QUERY = "FROM Member";
 
     @Override
     public Member save(Member member) {
@@ -45,6 +50,16 @@ public class MemberRepositoryImpl implements MemberRepository {
                 .list();
     }
 
+    @Override
+    public Stream<Member> streamAll(int fetchSize) {
+        return ScrollSupport.stream(Member.class, STREAM_ALL_QUERY, fetchSize);
+    }
+
+    @Override
+    public void forEachChunk(int chunkSize, Consumer<List<Member>> consumer) {
+        ScrollSupport.forEachChunk(Member.class, STREAM_ALL_QUERY, chunkSize, consumer);
+    }
+
     @Override
     public void delete(Member member) {
         getCurrentSession().delete(member);
@@ -70,36 +85,79 @@ public class MemberRepositoryImpl implements MemberRepository {
         );
     }
 
+    @Override
+    public Optional<Long> findIdByEmail(String email) {
+        return Optional.ofNullable(
+                getCurrentSession()
+                        .createQuery("SELECT m.id FROM Member m WHERE m.email = :email", Long.class)
+                        .setParameter("email", email)
+                        .uniqueResult()
+        );
+    }
+
     @Override
     public Page<Member> search(String searchTerm, PageRequest pageRequest) {
         Session session = getCurrentSession();
         CriteriaBuilder cb = session.getCriteriaBuilder();
 
-        Predicate searchPredicate = buildSearchPredicate(cb, cb.createQuery(Long.class).from(Member.class), searchTerm);
+        // Data query
+        CriteriaQuery<Member> dataQuery = cb.createQuery(Member.class);
+        Root<Member> dataRoot = dataQuery.from(Member.class);
+        dataQuery.select(dataRoot);
+        Predicate searchPredicate = buildSearchPredicate(cb, dataRoot, searchTerm);
+        if (searchPredicate != null) {
+            dataQuery.where(searchPredicate);
+        }
+        applySorting(cb, dataQuery, dataRoot, pageRequest);
+
+        Query<Member> query = session.createQuery(dataQuery)
+                .setFirstResult(pageRequest.getPage() * pageRequest.getSize())
+                .setMaxResults(PagingSupport.maxResults(pageRequest));
+
+        String countKey = "Member.search|" + (searchTerm != null ? searchTerm.trim().toLowerCase() : "");
+        return PagingSupport.toPage(session, query.list(), pageRequest, countKey, s -> count(s, searchTerm));
+    }
 
-        // Count query
+    private Long count(Session session, String searchTerm) {
+        CriteriaBuilder cb = session.getCriteriaBuilder();
         CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
         Root<Member> countRoot = countQuery.from(Member.class);
         countQuery.select(cb.count(countRoot));
+        Predicate searchPredicate = buildSearchPredicate(cb, countRoot, searchTerm);
         if (searchPredicate != null) {
-            countQuery.where(buildSearchPredicate(cb, countRoot, searchTerm));
+            countQuery.where(searchPredicate);
         }
-        Long total = session.createQuery(countQuery).uniqueResult();
+        return session.createQuery(countQuery).uniqueResult();
+    }
+
+    @Override
+    public CursorPage<Member> search(String searchTerm, CursorRequest cursorRequest) {
+        Session session = getCurrentSession();
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        List<PageRequest.Sort> keys = PagingSupport.withIdTieBreaker(cursorRequest.getSorts());
 
-        // Data query
         CriteriaQuery<Member> dataQuery = cb.createQuery(Member.class);
         Root<Member> dataRoot = dataQuery.from(Member.class);
         dataQuery.select(dataRoot);
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate searchPredicate = buildSearchPredicate(cb, dataRoot, searchTerm);
         if (searchPredicate != null) {
-            dataQuery.where(buildSearchPredicate(cb, dataRoot, searchTerm));
+            predicates.add(searchPredicate);
         }
-        applySorting(cb, dataQuery, dataRoot, pageRequest);
-
-        Query<Member> query = session.createQuery(dataQuery)
-                .setFirstResult(pageRequest.getPage() * pageRequest.getSize())
-                .setMaxResults(pageRequest.getSize());
+        if (cursorRequest.getCursor() != null) {
+            List<Object> lastKeys = PagingSupport.decodeCursor(cursorRequest.getCursor(), keys.size());
+            predicates.add(PagingSupport.seekPredicate(cb, dataRoot, keys, lastKeys));
+        }
+        if (!predicates.isEmpty()) {
+            dataQuery.where(predicates.toArray(new Predicate[0]));
+        }
+        dataQuery.orderBy(PagingSupport.toOrders(cb, dataRoot, keys));
 
-        return new Page<>(query.list(), total != null ? total : 0, pageRequest.getPage(), pageRequest.getSize());
+        // Fetch one extra row to find out whether another page follows
+        List<Member> rows = session.createQuery(dataQuery)
+                .setMaxResults(cursorRequest.getSize() + 1)
+                .list();
+        return PagingSupport.toCursorPage(session, Member.class, rows, keys, cursorRequest.getSize());
     }
 
     @Override
@@ -118,7 +176,7 @@ public class MemberRepositoryImpl implements MemberRepository {
     }
 
     private Session getCurrentSession() {
-        return HibernateUtil.getSessionFactory().getCurrentSession();
+        return UnitOfWork.currentSession();
     }
 
     private Predicate buildSearchPredicate(CriteriaBuilder cb, Root<Member> root, String searchTerm) {
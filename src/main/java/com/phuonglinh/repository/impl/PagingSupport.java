@@ -0,0 +1,220 @@
+package com.phuonglinh.repository.impl;
+
+import com.phuonglinh.dto.CursorPage;
+import com.phuonglinh.dto.Page;
+import com.phuonglinh.dto.PageRequest;
+import com.phuonglinh.exception.ValidationException;
+import com.phuonglinh.util.CountEstimator;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Shared helpers for offset and keyset (seek) pagination. The keyset cursor is an opaque Base64
+ * token holding the sort key values of the last row of a page, followed by its id as the tie-breaker.
+ */
+final class PagingSupport {
+
+    private static final String ID = "id";
+
+    private PagingSupport() {}
+
+    static int maxResults(PageRequest pageRequest) {
+        // Without an exact count, one extra row tells whether another page follows
+        return countMode(pageRequest) == PageRequest.CountMode.EXACT
+                ? pageRequest.getSize()
+                : pageRequest.getSize() + 1;
+    }
+
+    private static PageRequest.CountMode countMode(PageRequest pageRequest) {
+        return pageRequest.getCountMode() != null ? pageRequest.getCountMode() : PageRequest.CountMode.EXACT;
+    }
+
+    static <T> Page<T> toPage(Session session, List<T> rows, PageRequest pageRequest,
+                              String countKey, Function<Session, Long> counter) {
+        int page = pageRequest.getPage();
+        int size = pageRequest.getSize();
+        PageRequest.CountMode mode = countMode(pageRequest);
+
+        if (mode == PageRequest.CountMode.EXACT) {
+            Long total = counter.apply(session);
+            return new Page<>(rows, total != null ? total : 0, page, size);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+        if (mode == PageRequest.CountMode.NONE) {
+            return new Page<>(content, page, size, hasNext);
+        }
+
+        // Never report fewer rows than this page has already proven to exist
+        long seen = (long) page * size + content.size() + (hasNext ? 1 : 0);
+        long estimate = CountEstimator.getInstance().estimate(countKey, session, counter);
+        return new Page<>(content, Math.max(estimate, seen), page, size, mode, hasNext);
+    }
+
+    static List<PageRequest.Sort> withIdTieBreaker(List<PageRequest.Sort> sorts) {
+        List<PageRequest.Sort> keys = new ArrayList<>();
+        if (sorts != null) {
+            for (PageRequest.Sort sort : sorts) {
+                keys.add(sort);
+                if (ID.equals(sort.getField())) {
+                    return keys;
+                }
+            }
+        }
+        keys.add(new PageRequest.Sort(ID, PageRequest.SortDirection.ASC));
+        return keys;
+    }
+
+    static List<Order> toOrders(CriteriaBuilder cb, Root<?> root, List<PageRequest.Sort> keys) {
+        List<Order> orders = new ArrayList<>();
+        for (PageRequest.Sort sort : keys) {
+            orders.add(sort.getDirection() == PageRequest.SortDirection.DESC
+                    ? cb.desc(root.get(sort.getField()))
+                    : cb.asc(root.get(sort.getField())));
+        }
+        return orders;
+    }
+
+    /**
+     * Builds {@code (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ...} honouring each key's direction.
+     * Null handling follows MySQL ordering: NULLs sort first ascending and last descending.
+     */
+    static Predicate seekPredicate(CriteriaBuilder cb, Root<?> root, List<PageRequest.Sort> keys, List<Object> values) {
+        List<Predicate> branches = new ArrayList<>();
+        List<Predicate> equalities = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            PageRequest.Sort sort = keys.get(i);
+            Expression<Comparable<Object>> path = root.get(sort.getField());
+            Object value = values.get(i);
+
+            List<Predicate> branch = new ArrayList<>(equalities);
+            branch.add(after(cb, path, sort.getDirection(), value));
+            branches.add(cb.and(branch.toArray(new Predicate[0])));
+
+            equalities.add(value == null ? cb.isNull(path) : cb.equal(path, value));
+        }
+        return cb.or(branches.toArray(new Predicate[0]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate after(CriteriaBuilder cb, Expression<Comparable<Object>> path,
+                                   PageRequest.SortDirection direction, Object value) {
+        boolean descending = direction == PageRequest.SortDirection.DESC;
+        if (value == null) {
+            return descending ? cb.disjunction() : cb.isNotNull(path);
+        }
+        Comparable<Object> bound = (Comparable<Object>) value;
+        return descending
+                ? cb.or(cb.lessThan(path, bound), cb.isNull(path))
+                : cb.greaterThan(path, bound);
+    }
+
+    static <T> CursorPage<T> toCursorPage(Session session, Class<T> entityClass, List<T> rows,
+                                          List<PageRequest.Sort> keys, int size) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, size, null);
+        }
+        List<T> content = new ArrayList<>(rows.subList(0, size));
+        T last = content.get(content.size() - 1);
+        return new CursorPage<>(content, size, encodeCursor(keyValues(session, entityClass, last, keys)));
+    }
+
+    private static List<Object> keyValues(Session session, Class<?> entityClass, Object entity, List<PageRequest.Sort> keys) {
+        EntityPersister persister = session.getSessionFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMetamodel()
+                .entityPersister(entityClass);
+        List<Object> values = new ArrayList<>();
+        for (PageRequest.Sort sort : keys) {
+            values.add(ID.equals(sort.getField())
+                    ? persister.getIdentifier(entity, (SharedSessionContractImplementor) session)
+                    : persister.getPropertyValue(entity, sort.getField()));
+        }
+        return values;
+    }
+
+    static String encodeCursor(List<Object> values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(values.size());
+            for (Object value : values) {
+                if (value == null) {
+                    out.writeByte('n');
+                } else if (value instanceof String) {
+                    out.writeByte('s');
+                    out.writeUTF((String) value);
+                } else if (value instanceof Long) {
+                    out.writeByte('l');
+                    out.writeLong((Long) value);
+                } else if (value instanceof Integer) {
+                    out.writeByte('i');
+                    out.writeInt((Integer) value);
+                } else if (value instanceof Boolean) {
+                    out.writeByte('b');
+                    out.writeBoolean((Boolean) value);
+                } else if (value instanceof LocalDateTime) {
+                    out.writeByte('t');
+                    out.writeUTF(value.toString());
+                } else if (value instanceof LocalDate) {
+                    out.writeByte('d');
+                    out.writeUTF(value.toString());
+                } else {
+                    throw new ValidationException("Unsupported sort key type: " + value.getClass().getSimpleName());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    static List<Object> decodeCursor(String cursor, int expectedSize) {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            int count = in.readUnsignedByte();
+            if (count != expectedSize) {
+                throw new ValidationException("Cursor does not match the requested sort order");
+            }
+            List<Object> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int tag = in.readUnsignedByte();
+                switch (tag) {
+                    case 'n': values.add(null); break;
+                    case 's': values.add(in.readUTF()); break;
+                    case 'l': values.add(in.readLong()); break;
+                    case 'i': values.add(in.readInt()); break;
+                    case 'b': values.add(in.readBoolean()); break;
+                    case 't': values.add(LocalDateTime.parse(in.readUTF())); break;
+                    case 'd': values.add(LocalDate.parse(in.readUTF())); break;
+                    default: throw new ValidationException("Invalid cursor");
+                }
+            }
+            return values;
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof ValidationException) {
+                throw (ValidationException) e;
+            }
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+}
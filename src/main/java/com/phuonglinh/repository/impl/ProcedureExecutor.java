@@ -0,0 +1,73 @@
+package com.phuonglinh.repository.impl;
+
+import org.hibernate.Session;
+
+import java.sql.CallableStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Calls stored procedures on the session's own connection via {@code doWork}, so the connection
+ * stays managed by Hibernate. Each call is prepared and closed per use; the pool enables
+ * Connector/J's {@code cacheCallableStmts}, so repeat calls reuse the driver's parsed statement.
+ * Rows are mapped into projections through column indexes resolved once per result set.
+ */
+final class ProcedureExecutor {
+
+    private ProcedureExecutor() {}
+
+    static <T> List<T> list(Session session, String call, Binder binder, Projection<T> projection) {
+        List<T> rows = new ArrayList<>();
+        forEach(session, call, binder, 0, projection, rows::add);
+        return rows;
+    }
+
+    /**
+     * Hands each row to {@code consumer} as it is read. Pass
+     * {@link ScrollSupport#streamingFetchSize} to stream instead of buffering the result.
+     */
+    static <T> void forEach(Session session, String call, Binder binder, int fetchSize,
+                            Projection<T> projection, Consumer<T> consumer) {
+        session.doWork(connection -> {
+            try (CallableStatement stmt = connection.prepareCall(call)) {
+                binder.bind(stmt);
+                stmt.setFetchSize(fetchSize);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    int[] columns = projection.resolve(rs);
+                    while (rs.next()) {
+                        consumer.accept(projection.mapper.map(rs, columns));
+                    }
+                }
+            }
+        });
+    }
+
+    interface Binder {
+        void bind(CallableStatement stmt) throws SQLException;
+    }
+
+    interface RowMapper<T> {
+        T map(ResultSet rs, int[] columns) throws SQLException;
+    }
+
+    static final class Projection<T> {
+        private final RowMapper<T> mapper;
+        private final String[] columnNames;
+
+        Projection(RowMapper<T> mapper, String... columnNames) {
+            this.mapper = mapper;
+            this.columnNames = columnNames;
+        }
+
+        private int[] resolve(ResultSet rs) throws SQLException {
+            int[] columns = new int[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                columns[i] = rs.findColumn(columnNames[i]);
+            }
+            return columns;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.phuonglinh.repository.impl;
+
+import com.phuonglinh.util.HibernateUtil;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Forward-only scrolling over a StatelessSession, so rows are neither kept in a persistence
+ * context nor dirty-checked. The returned stream owns the session and must be closed.
+ * On MySQL a positive fetch size streams only because the pool sets Connector/J's
+ * {@code useCursorFetch}; without it the driver buffers the whole result whatever the size.
+ */
+final class ScrollSupport {
+
+    // Connector/J streams rows one by one instead of buffering the whole result set
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    // Other drivers reject MIN_VALUE and read ahead this many rows instead
+    private static final int STREAMING_FETCH_SIZE = Integer.getInteger("lms.jdbc.streamFetchSize", 1000);
+
+    private ScrollSupport() {}
+
+    /**
+     * The fetch size that streams a large result on {@code sessionFactory}'s database.
+     */
+    static int streamingFetchSize(SessionFactory sessionFactory) {
+        return sessionFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                instanceof MySQLDialect ? MYSQL_STREAMING_FETCH_SIZE : STREAMING_FETCH_SIZE;
+    }
+
+    static <T> Stream<T> stream(Class<T> entityClass, String hql, int fetchSize) {
+        StatelessSession session = HibernateUtil.getSessionFactory().openStatelessSession();
+        try {
+            ScrollableResults results = session.createQuery(hql, entityClass)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    if (!results.next()) {
+                        return false;
+                    }
+                    action.accept(entityClass.cast(results.get(0)));
+                    return true;
+                }
+            };
+            return StreamSupport.stream(rows, false).onClose(() -> {
+                try {
+                    results.close();
+                } finally {
+                    session.close();
+                }
+            });
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    static <T> void forEachChunk(Class<T> entityClass, String hql, int chunkSize, Consumer<List<T>> consumer) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        try (Stream<T> rows = stream(entityClass, hql,
+                streamingFetchSize(HibernateUtil.getSessionFactory()))) {
+            List<T> chunk = new ArrayList<>(chunkSize);
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize) {
+                    consumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                consumer.accept(chunk);
+            }
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.phuonglinh.search;
+
+import com.phuonglinh.entity.Author;
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.util.UnitOfWork;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-process inverted index over book title, description, ISBN and author names.
+ * Terms are kept sorted so a query token also matches every indexed term it prefixes.
+ */
+public class BookSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndex.class);
+    private static final BookSearchIndex INSTANCE = new BookSearchIndex();
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int ISBN_WEIGHT = 5;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_PENALTY = 0.5;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+    private List<Consumer<Segment>> rebuildLog;
+    private volatile boolean loaded;
+
+    BookSearchIndex() {}
+
+    public static BookSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void index(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        Long id = book.getId();
+        Map<String, Integer> ownTerms = new HashMap<>();
+        addTerms(ownTerms, book.getTitle(), TITLE_WEIGHT);
+        addTerms(ownTerms, book.getDescription(), DESCRIPTION_WEIGHT);
+        addIsbn(ownTerms, book.getIsbn());
+        // An uninitialized author collection means the authors did not change in this unit of work
+        Map<String, Integer> authorTerms = null;
+        if (book.getAuthors() != null && Hibernate.isInitialized(book.getAuthors())) {
+            authorTerms = new HashMap<>();
+            for (Author author : book.getAuthors()) {
+                addTerms(authorTerms, author.getName(), AUTHOR_WEIGHT);
+            }
+        }
+        Map<String, Integer> authors = authorTerms;
+        apply(s -> s.replace(id, ownTerms, authors));
+    }
+
+    public void remove(Long bookId) {
+        if (bookId != null) {
+            apply(s -> s.remove(bookId));
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} matching book IDs ordered by descending relevance, along with the
+     * number of books that matched. Every query token must match a term exactly or as a prefix;
+     * exact matches rank above prefix matches.
+     */
+    public Hits search(String text, int limit) {
+        ensureLoaded();
+        List<String> tokens = tokenize(text);
+        if (tokens.isEmpty()) {
+            return Hits.NONE;
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String token : new LinkedHashSet<>(tokens)) {
+                Map<Long, Double> tokenScores = segment.score(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    for (Map.Entry<Long, Double> e : scores.entrySet()) {
+                        e.setValue(e.getValue() + tokenScores.get(e.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return Hits.NONE;
+                }
+            }
+            List<Long> ids = scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            return new Hits(ids, scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuildLog = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        Segment fresh = new Segment();
+        try {
+            UnitOfWork.readOnly(() -> {
+                Session session = UnitOfWork.currentSession();
+                try (ScrollableResults rows = session
+                        .createQuery("SELECT b.id, b.title, b.description, b.isbn FROM Book b")
+                        .setFetchSize(1000)
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (rows.next()) {
+                        Map<String, Integer> terms = new HashMap<>();
+                        addTerms(terms, (String) rows.get(1), TITLE_WEIGHT);
+                        addTerms(terms, (String) rows.get(2), DESCRIPTION_WEIGHT);
+                        addIsbn(terms, (String) rows.get(3));
+                        fresh.replace((Long) rows.get(0), terms, Collections.<String, Integer>emptyMap());
+                    }
+                }
+                try (ScrollableResults rows = session
+                        .createQuery("SELECT b.id, a.name FROM Book b JOIN b.authors a")
+                        .setFetchSize(1000)
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (rows.next()) {
+                        Map<String, Integer> terms = new HashMap<>();
+                        addTerms(terms, (String) rows.get(1), AUTHOR_WEIGHT);
+                        fresh.addAuthorTerms((Long) rows.get(0), terms);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuildLog = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Replay changes committed while the snapshot was being read
+            for (Consumer<Segment> change : rebuildLog) {
+                change.accept(fresh);
+            }
+            rebuildLog = null;
+            segment = fresh;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Book search index rebuilt: {} books, {} terms in {} ms",
+                fresh.documents.size(), fresh.postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private void apply(Consumer<Segment> change) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded && rebuildLog == null) {
+                return; // the first search loads everything from the database anyway
+            }
+            change.accept(segment);
+            if (rebuildLog != null) {
+                rebuildLog.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .replace('\u0111', 'd').replace('\u0110', 'D')
+                .toLowerCase();
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private static void addIsbn(Map<String, Integer> terms, String isbn) {
+        addTerms(terms, isbn, ISBN_WEIGHT);
+        if (isbn != null) {
+            // Also index the digits as one token so "9780306406157" matches "978-0-306-40615-7"
+            String compact = String.join("", tokenize(isbn));
+            if (!compact.isEmpty()) {
+                terms.merge(compact, ISBN_WEIGHT, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Ranked IDs from one search. {@code total} counts every matching book, so it exceeds the
+     * number of IDs when the search limit cut the ranking short.
+     */
+    public static final class Hits {
+        static final Hits NONE = new Hits(Collections.<Long>emptyList(), 0);
+
+        private final List<Long> ids;
+        private final int total;
+
+        Hits(List<Long> ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public boolean isTruncated() {
+            return total > ids.size();
+        }
+    }
+
+    private static class Segment {
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, Document> documents = new HashMap<>();
+
+        // authorTerms == null keeps the author terms already indexed for this book
+        void replace(Long id, Map<String, Integer> ownTerms, Map<String, Integer> authorTerms) {
+            Document previous = documents.get(id);
+            Map<String, Integer> authors = authorTerms != null ? authorTerms
+                    : previous != null ? previous.authorTerms : Collections.<String, Integer>emptyMap();
+            remove(id);
+            put(id, new Document(ownTerms, authors));
+        }
+
+        void addAuthorTerms(Long id, Map<String, Integer> terms) {
+            Document previous = documents.get(id);
+            if (previous == null) {
+                return;
+            }
+            Map<String, Integer> authors = new HashMap<>(previous.authorTerms);
+            terms.forEach((term, weight) -> authors.merge(term, weight, Integer::sum));
+            remove(id);
+            put(id, new Document(previous.ownTerms, authors));
+        }
+
+        void remove(Long id) {
+            Document document = documents.remove(id);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.combined().keySet()) {
+                Map<Long, Integer> docs = postings.get(term);
+                if (docs != null) {
+                    docs.remove(id);
+                    if (docs.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        private void put(Long id, Document document) {
+            documents.put(id, document);
+            document.combined().forEach((term, weight) ->
+                    postings.computeIfAbsent(term, k -> new HashMap<>()).put(id, weight));
+        }
+
+        Map<Long, Double> score(String token) {
+            Map<Long, Double> scores = new HashMap<>();
+            int total = Math.max(documents.size(), 1);
+            NavigableMap<String, Map<Long, Integer>> matches =
+                    postings.subMap(token, true, token + Character.MAX_VALUE, false);
+            for (Map.Entry<String, Map<Long, Integer>> entry : matches.entrySet()) {
+                Map<Long, Integer> docs = entry.getValue();
+                double idf = Math.log(1.0 + (double) total / docs.size());
+                double factor = entry.getKey().equals(token) ? 1.0 : PREFIX_PENALTY;
+                for (Map.Entry<Long, Integer> doc : docs.entrySet()) {
+                    scores.merge(doc.getKey(), doc.getValue() * idf * factor, Math::max);
+                }
+            }
+            return scores;
+        }
+    }
+
+    private static class Document {
+        private final Map<String, Integer> ownTerms;
+        private final Map<String, Integer> authorTerms;
+
+        Document(Map<String, Integer> ownTerms, Map<String, Integer> authorTerms) {
+            this.ownTerms = ownTerms;
+            this.authorTerms = authorTerms;
+        }
+
+        Map<String, Integer> combined() {
+            Map<String, Integer> terms = new HashMap<>(ownTerms);
+            authorTerms.forEach((term, weight) -> terms.merge(term, weight, Integer::sum));
+            return terms;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.phuonglinh.service;
+
+import com.phuonglinh.dto.BookSearchCriteria;
+import com.phuonglinh.dto.BookSummary;
+import com.phuonglinh.dto.BulkResult;
+import com.phuonglinh.dto.CursorPage;
+import com.phuonglinh.dto.CursorRequest;
+import com.phuonglinh.dto.ImportReport;
+import com.phuonglinh.dto.Page;
+import com.phuonglinh.dto.PageRequest;
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.enums.ImportFormat;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link BookService}. Each call runs in its own unit of work on
+ * {@link com.phuonglinh.util.AsyncExecutor}, so it never joins a transaction open on the caller's thread.
+ */
+public interface AsyncBookService {
+    CompletableFuture<Book> create(Book book);
+    CompletableFuture<Book> getById(Long id);
+    CompletableFuture<Book> update(Long id, Book book);
+    CompletableFuture<Void> delete(Long id);
+
+    CompletableFuture<Page<Book>> search(BookSearchCriteria criteria, PageRequest pageRequest);
+    CompletableFuture<CursorPage<Book>> search(BookSearchCriteria criteria, CursorRequest cursorRequest);
+    CompletableFuture<List<Book>> listByAuthor(Long authorId, int limit);
+    CompletableFuture<List<Book>> topBorrowed(int limit);
+    CompletableFuture<List<Book>> topBorrowed(int limit, int lastDays);
+
+    // Projections for list views
+    CompletableFuture<Page<BookSummary>> searchSummaries(BookSearchCriteria criteria, PageRequest pageRequest);
+    CompletableFuture<List<BookSummary>> listSummariesByAuthor(Long authorId, int limit);
+    CompletableFuture<List<BookSummary>> topBorrowedSummaries(int limit);
+    CompletableFuture<List<BookSummary>> topBorrowedSummaries(int limit, int lastDays);
+
+    CompletableFuture<Void> changeAvailability(Long id, boolean available);
+    CompletableFuture<Integer> countAvailable(String category);
+    CompletableFuture<List<Book>> findOverdueByDays(int days);
+    CompletableFuture<Book> getCached(Long id);
+
+    // Batch operations
+    CompletableFuture<BulkResult> bulkImport(List<Book> books, int batchSize);
+    CompletableFuture<BulkResult> bulkUpdateAvailability(List<Long> bookIds, boolean available, int batchSize);
+
+    // Streaming import
+    CompletableFuture<ImportReport> importBooks(Path source, ImportFormat format, int chunkSize);
+    CompletableFuture<ImportReport> importBooks(InputStream source, ImportFormat format, int chunkSize);
+}
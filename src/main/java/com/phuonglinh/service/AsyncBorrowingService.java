@@ -0,0 +1,38 @@
+package com.phuonglinh.service;
+
+import com.phuonglinh.dto.BorrowBooksRequest;
+import com.phuonglinh.dto.BorrowingRow;
+import com.phuonglinh.dto.BulkResult;
+import com.phuonglinh.dto.BulkReturnResult;
+import com.phuonglinh.dto.OverdueBorrowingRow;
+import com.phuonglinh.dto.Page;
+import com.phuonglinh.dto.PageRequest;
+import com.phuonglinh.entity.Borrowing;
+import com.phuonglinh.enums.FetchPlan;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking counterpart of {@link BorrowingService}. Each call runs in its own unit of work on
+ * {@link com.phuonglinh.util.AsyncExecutor}, so it never joins a transaction open on the caller's thread.
+ */
+public interface AsyncBorrowingService {
+    CompletableFuture<List<Borrowing>> borrowBooks(BorrowBooksRequest request);
+    CompletableFuture<Void> returnBooks(List<Long> borrowingIds, LocalDate returnDate);
+    CompletableFuture<BulkReturnResult> returnBooks(List<Long> borrowingIds, LocalDate returnDate, int chunkSize);
+    CompletableFuture<Void> extendDueDate(Long borrowingId, LocalDate newDueDate);
+
+    CompletableFuture<Page<Borrowing>> findByMember(Long memberId, PageRequest pageRequest);
+    CompletableFuture<Page<Borrowing>> findByMember(Long memberId, PageRequest pageRequest, FetchPlan fetchPlan);
+    CompletableFuture<Page<BorrowingRow>> findRowsByMember(Long memberId, PageRequest pageRequest);
+    CompletableFuture<List<Borrowing>> findActiveByBook(Long bookId);
+    CompletableFuture<List<Borrowing>> findActiveByBook(Long bookId, FetchPlan fetchPlan);
+    CompletableFuture<List<Borrowing>> findOverdue(LocalDate referenceDate);
+    CompletableFuture<List<Borrowing>> findOverdue(LocalDate referenceDate, FetchPlan fetchPlan);
+    CompletableFuture<List<OverdueBorrowingRow>> findOverdueByDaysSp(int days);
+    // The consumer is called on the executor thread
+    CompletableFuture<BulkResult> scanOverdue(LocalDate referenceDate, int chunkSize, Consumer<List<Borrowing>> consumer);
+}
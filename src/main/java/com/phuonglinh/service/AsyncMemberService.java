@@ -0,0 +1,28 @@
+package com.phuonglinh.service;
+
+import com.phuonglinh.dto.CursorPage;
+import com.phuonglinh.dto.CursorRequest;
+import com.phuonglinh.dto.Page;
+import com.phuonglinh.dto.PageRequest;
+import com.phuonglinh.entity.Member;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link MemberService}. Each call runs in its own unit of work on
+ * {@link com.phuonglinh.util.AsyncExecutor}, so it never joins a transaction open on the caller's thread.
+ */
+public interface AsyncMemberService {
+    CompletableFuture<Member> register(Member member);
+    CompletableFuture<Member> getById(Long id);
+    CompletableFuture<Member> update(Long id, Member member);
+    CompletableFuture<Void> delete(Long id);
+
+    CompletableFuture<Optional<Member>> findByEmail(String email);
+    CompletableFuture<Page<Member>> search(String searchTerm, PageRequest pageRequest);
+    CompletableFuture<CursorPage<Member>> search(String searchTerm, CursorRequest cursorRequest);
+
+    CompletableFuture<Boolean> isEligibleToBorrow(Long memberId);
+    CompletableFuture<Long> countActiveBorrowings(Long memberId);
+}
@@ -1,10 +1,18 @@
 package com.phuonglinh.service;
 
 import com.phuonglinh.dto.BookSearchCriteria;
+import com.phuonglinh.dto.BookSummary;
+import com.phuonglinh.dto.BulkResult;
+import com.phuonglinh.dto.CursorPage;
+import com.phuonglinh.dto.CursorRequest;
+import com.phuonglinh.dto.ImportReport;
 import com.phuonglinh.dto.Page;
 import com.phuonglinh.dto.PageRequest;
 import com.phuonglinh.entity.Book;
+import com.phuonglinh.enums.ImportFormat;
 
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.List;
 
 public interface BookService {
@@ -14,14 +22,27 @@ public interface BookService {
     void delete(Long id);
 
     Page<Book> search(BookSearchCriteria criteria, PageRequest pageRequest);
+    CursorPage<Book> search(BookSearchCriteria criteria, CursorRequest cursorRequest);
     List<Book> listByAuthor(Long authorId, int limit);
     List<Book> topBorrowed(int limit);
+    List<Book> topBorrowed(int limit, int lastDays);
+
+    // Projections for list views
+    Page<BookSummary> searchSummaries(BookSearchCriteria criteria, PageRequest pageRequest);
+    List<BookSummary> listSummariesByAuthor(Long authorId, int limit);
+    List<BookSummary> topBorrowedSummaries(int limit);
+    List<BookSummary> topBorrowedSummaries(int limit, int lastDays);
 
     void changeAvailability(Long id, boolean available);
+    int countAvailable(String category);
     List<Book> findOverdueByDays(int days);
     Book getCached(Long id);
 
     // Batch operations
-    void bulkImport(List<Book> books, int batchSize);
-    void bulkUpdateAvailability(List<Long> bookIds, boolean available, int batchSize);
+    BulkResult bulkImport(List<Book> books, int batchSize);
+    BulkResult bulkUpdateAvailability(List<Long> bookIds, boolean available, int batchSize);
+
+    // Streaming import
+    ImportReport importBooks(Path source, ImportFormat format, int chunkSize);
+    ImportReport importBooks(InputStream source, ImportFormat format, int chunkSize);
 }
\ No newline at end of file
@@ -1,20 +1,37 @@
 package com.phuonglinh.service;
 
 import com.phuonglinh.dto.BorrowBooksRequest;
+import com.phuonglinh.dto.BorrowingRow;
+import com.phuonglinh.dto.BulkResult;
+import com.phuonglinh.dto.BulkReturnResult;
+import com.phuonglinh.dto.ContentionStats;
+import com.phuonglinh.dto.OverdueBorrowingRow;
 import com.phuonglinh.dto.Page;
 import com.phuonglinh.dto.PageRequest;
 import com.phuonglinh.entity.Borrowing;
+import com.phuonglinh.enums.FetchPlan;
+import com.phuonglinh.metrics.StatementBudget;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BorrowingService {
+    @StatementBudget(4)
     List<Borrowing> borrowBooks(BorrowBooksRequest request);
     void returnBooks(List<Long> borrowingIds, LocalDate returnDate);
+    BulkReturnResult returnBooks(List<Long> borrowingIds, LocalDate returnDate, int chunkSize);
     void extendDueDate(Long borrowingId, LocalDate newDueDate);
 
     Page<Borrowing> findByMember(Long memberId, PageRequest pageRequest);
+    Page<Borrowing> findByMember(Long memberId, PageRequest pageRequest, FetchPlan fetchPlan);
+    Page<BorrowingRow> findRowsByMember(Long memberId, PageRequest pageRequest);
     List<Borrowing> findActiveByBook(Long bookId);
+    List<Borrowing> findActiveByBook(Long bookId, FetchPlan fetchPlan);
     List<Borrowing> findOverdue(LocalDate referenceDate);
-    List<Borrowing> findOverdueByDaysSp(int days);
+    List<Borrowing> findOverdue(LocalDate referenceDate, FetchPlan fetchPlan);
+    List<OverdueBorrowingRow> findOverdueByDaysSp(int days);
+    BulkResult scanOverdue(LocalDate referenceDate, int chunkSize, Consumer<List<Borrowing>> consumer);
+
+    ContentionStats getCheckoutContention();
 }
\ No newline at end of file
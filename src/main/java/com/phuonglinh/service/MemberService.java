@@ -1,5 +1,8 @@
 package com.phuonglinh.service;
 
+import com.phuonglinh.dto.CacheRegionStats;
+import com.phuonglinh.dto.CursorPage;
+import com.phuonglinh.dto.CursorRequest;
 import com.phuonglinh.dto.Page;
 import com.phuonglinh.dto.PageRequest;
 import com.phuonglinh.entity.Member;
@@ -14,7 +17,10 @@ public interface MemberService {
 
     Optional<Member> findByEmail(String email);
     Page<Member> search(String searchTerm, PageRequest pageRequest);
+    CursorPage<Member> search(String searchTerm, CursorRequest cursorRequest);
 
     boolean isEligibleToBorrow(Long memberId);
     long countActiveBorrowings(Long memberId);
+
+    CacheRegionStats getEmailCacheStats();
 }
@@ -0,0 +1,139 @@
+package com.phuonglinh.service.impl;
+
+import com.phuonglinh.dto.BookSearchCriteria;
+import com.phuonglinh.dto.BookSummary;
+import com.phuonglinh.dto.BulkResult;
+import com.phuonglinh.dto.CursorPage;
+import com.phuonglinh.dto.CursorRequest;
+import com.phuonglinh.dto.ImportReport;
+import com.phuonglinh.dto.Page;
+import com.phuonglinh.dto.PageRequest;
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.enums.ImportFormat;
+import com.phuonglinh.service.AsyncBookService;
+import com.phuonglinh.service.BookService;
+import com.phuonglinh.util.AsyncExecutor;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncBookServiceImpl implements AsyncBookService {
+    private final BookService delegate;
+    private final AsyncExecutor executor;
+
+    public AsyncBookServiceImpl() {
+        this(Services.bookService(), AsyncExecutor.getInstance());
+    }
+
+    public AsyncBookServiceImpl(BookService delegate, AsyncExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Book> create(Book book) {
+        return executor.supply(() -> delegate.create(book));
+    }
+
+    @Override
+    public CompletableFuture<Book> getById(Long id) {
+        return executor.supply(() -> delegate.getById(id));
+    }
+
+    @Override
+    public CompletableFuture<Book> update(Long id, Book book) {
+        return executor.supply(() -> delegate.update(id, book));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Long id) {
+        return executor.run(() -> delegate.delete(id));
+    }
+
+    @Override
+    public CompletableFuture<Page<Book>> search(BookSearchCriteria criteria, PageRequest pageRequest) {
+        return executor.supply(() -> delegate.search(criteria, pageRequest));
+    }
+
+    @Override
+    public CompletableFuture<CursorPage<Book>> search(BookSearchCriteria criteria, CursorRequest cursorRequest) {
+        return executor.supply(() -> delegate.search(criteria, cursorRequest));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> listByAuthor(Long authorId, int limit) {
+        return executor.supply(() -> delegate.listByAuthor(authorId, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> topBorrowed(int limit) {
+        return executor.supply(() -> delegate.topBorrowed(limit));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> topBorrowed(int limit, int lastDays) {
+        return executor.supply(() -> delegate.topBorrowed(limit, lastDays));
+    }
+
+    @Override
+    public CompletableFuture<Page<BookSummary>> searchSummaries(BookSearchCriteria criteria, PageRequest pageRequest) {
+        return executor.supply(() -> delegate.searchSummaries(criteria, pageRequest));
+    }
+
+    @Override
+    public CompletableFuture<List<BookSummary>> listSummariesByAuthor(Long authorId, int limit) {
+        return executor.supply(() -> delegate.listSummariesByAuthor(authorId, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<BookSummary>> topBorrowedSummaries(int limit) {
+        return executor.supply(() -> delegate.topBorrowedSummaries(limit));
+    }
+
+    @Override
+    public CompletableFuture<List<BookSummary>> topBorrowedSummaries(int limit, int lastDays) {
+        return executor.supply(() -> delegate.topBorrowedSummaries(limit, lastDays));
+    }
+
+    @Override
+    public CompletableFuture<Void> changeAvailability(Long id, boolean available) {
+        return executor.run(() -> delegate.changeAvailability(id, available));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countAvailable(String category) {
+        return executor.supply(() -> delegate.countAvailable(category));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> findOverdueByDays(int days) {
+        return executor.supply(() -> delegate.findOverdueByDays(days));
+    }
+
+    @Override
+    public CompletableFuture<Book> getCached(Long id) {
+        return executor.supply(() -> delegate.getCached(id));
+    }
+
+    @Override
+    public CompletableFuture<BulkResult> bulkImport(List<Book> books, int batchSize) {
+        return executor.supply(() -> delegate.bulkImport(books, batchSize));
+    }
+
+    @Override
+    public CompletableFuture<BulkResult> bulkUpdateAvailability(List<Long> bookIds, boolean available, int batchSize) {
+        return executor.supply(() -> delegate.bulkUpdateAvailability(bookIds, available, batchSize));
+    }
+
+    @Override
+    public CompletableFuture<ImportReport> importBooks(Path source, ImportFormat format, int chunkSize) {
+        return executor.supply(() -> delegate.importBooks(source, format, chunkSize));
+    }
+
+    @Override
+    public CompletableFuture<ImportReport> importBooks(InputStream source, ImportFormat format, int chunkSize) {
+        return executor.supply(() -> delegate.importBooks(source, format, chunkSize));
+    }
+}
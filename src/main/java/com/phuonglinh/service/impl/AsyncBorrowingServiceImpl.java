@@ -0,0 +1,98 @@
+package com.phuonglinh.service.impl;
+
+import com.phuonglinh.dto.BorrowBooksRequest;
+import com.phuonglinh.dto.BorrowingRow;
+import com.phuonglinh.dto.BulkResult;
+import com.phuonglinh.dto.BulkReturnResult;
+import com.phuonglinh.dto.OverdueBorrowingRow;
+import com.phuonglinh.dto.Page;
+import com.phuonglinh.dto.PageRequest;
+import com.phuonglinh.entity.Borrowing;
+import com.phuonglinh.enums.FetchPlan;
+import com.phuonglinh.service.AsyncBorrowingService;
+import com.phuonglinh.service.BorrowingService;
+import com.phuonglinh.util.AsyncExecutor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public class AsyncBorrowingServiceImpl implements AsyncBorrowingService {
+    private final BorrowingService delegate;
+    private final AsyncExecutor executor;
+
+    public AsyncBorrowingServiceImpl() {
+        this(Services.borrowingService(), AsyncExecutor.getInstance());
+    }
+
+    public AsyncBorrowingServiceImpl(BorrowingService delegate, AsyncExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<List<Borrowing>> borrowBooks(BorrowBooksRequest request) {
+        return executor.supply(() -> delegate.borrowBooks(request));
+    }
+
+    @Override
+    public CompletableFuture<Void> returnBooks(List<Long> borrowingIds, LocalDate returnDate) {
+        return executor.run(() -> delegate.returnBooks(borrowingIds, returnDate));
+    }
+
+    @Override
+    public CompletableFuture<BulkReturnResult> returnBooks(List<Long> borrowingIds, LocalDate returnDate, int chunkSize) {
+        return executor.supply(() -> delegate.returnBooks(borrowingIds, returnDate, chunkSize));
+    }
+
+    @Override
+    public CompletableFuture<Void> extendDueDate(Long borrowingId, LocalDate newDueDate) {
+        return executor.run(() -> delegate.extendDueDate(borrowingId, newDueDate));
+    }
+
+    @Override
+    public CompletableFuture<Page<Borrowing>> findByMember(Long memberId, PageRequest pageRequest) {
+        return executor.supply(() -> delegate.findByMember(memberId, pageRequest));
+    }
+
+    @Override
+    public CompletableFuture<Page<Borrowing>> findByMember(Long memberId, PageRequest pageRequest, FetchPlan fetchPlan) {
+        return executor.supply(() -> delegate.findByMember(memberId, pageRequest, fetchPlan));
+    }
+
+    @Override
+    public CompletableFuture<Page<BorrowingRow>> findRowsByMember(Long memberId, PageRequest pageRequest) {
+        return executor.supply(() -> delegate.findRowsByMember(memberId, pageRequest));
+    }
+
+    @Override
+    public CompletableFuture<List<Borrowing>> findActiveByBook(Long bookId) {
+        return executor.supply(() -> delegate.findActiveByBook(bookId));
+    }
+
+    @Override
+    public CompletableFuture<List<Borrowing>> findActiveByBook(Long bookId, FetchPlan fetchPlan) {
+        return executor.supply(() -> delegate.findActiveByBook(bookId, fetchPlan));
+    }
+
+    @Override
+    public CompletableFuture<List<Borrowing>> findOverdue(LocalDate referenceDate) {
+        return executor.supply(() -> delegate.findOverdue(referenceDate));
+    }
+
+    @Override
+    public CompletableFuture<List<Borrowing>> findOverdue(LocalDate referenceDate, FetchPlan fetchPlan) {
+        return executor.supply(() -> delegate.findOverdue(referenceDate, fetchPlan));
+    }
+
+    @Override
+    public CompletableFuture<List<OverdueBorrowingRow>> findOverdueByDaysSp(int days) {
+        return executor.supply(() -> delegate.findOverdueByDaysSp(days));
+    }
+
+    @Override
+    public CompletableFuture<BulkResult> scanOverdue(LocalDate referenceDate, int chunkSize, Consumer<List<Borrowing>> consumer) {
+        return executor.supply(() -> delegate.scanOverdue(referenceDate, chunkSize, consumer));
+    }
+}
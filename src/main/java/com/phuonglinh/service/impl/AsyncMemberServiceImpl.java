@@ -0,0 +1,72 @@
+package com.phuonglinh.service.impl;
+
+import com.phuonglinh.dto.CursorPage;
+import com.phuonglinh.dto.CursorRequest;
+import com.phuonglinh.dto.Page;
+import com.phuonglinh.dto.PageRequest;
+import com.phuonglinh.entity.Member;
+import com.phuonglinh.service.AsyncMemberService;
+import com.phuonglinh.service.MemberService;
+import com.phuonglinh.util.AsyncExecutor;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncMemberServiceImpl implements AsyncMemberService {
+    private final MemberService delegate;
+    private final AsyncExecutor executor;
+
+    public AsyncMemberServiceImpl() {
+        this(Services.memberService(), AsyncExecutor.getInstance());
+    }
+
+    public AsyncMemberServiceImpl(MemberService delegate, AsyncExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Member> register(Member member) {
+        return executor.supply(() -> delegate.register(member));
+    }
+
+    @Override
+    public CompletableFuture<Member> getById(Long id) {
+        return executor.supply(() -> delegate.getById(id));
+    }
+
+    @Override
+    public CompletableFuture<Member> update(Long id, Member member) {
+        return executor.supply(() -> delegate.update(id, member));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Long id) {
+        return executor.run(() -> delegate.delete(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Member>> findByEmail(String email) {
+        return executor.supply(() -> delegate.findByEmail(email));
+    }
+
+    @Override
+    public CompletableFuture<Page<Member>> search(String searchTerm, PageRequest pageRequest) {
+        return executor.supply(() -> delegate.search(searchTerm, pageRequest));
+    }
+
+    @Override
+    public CompletableFuture<CursorPage<Member>> search(String searchTerm, CursorRequest cursorRequest) {
+        return executor.supply(() -> delegate.search(searchTerm, cursorRequest));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isEligibleToBorrow(Long memberId) {
+        return executor.supply(() -> delegate.isEligibleToBorrow(memberId));
+    }
+
+    @Override
+    public CompletableFuture<Long> countActiveBorrowings(Long memberId) {
+        return executor.supply(() -> delegate.countActiveBorrowings(memberId));
+    }
+}
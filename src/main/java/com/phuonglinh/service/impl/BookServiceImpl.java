@@ -1,41 +1,77 @@
 package com.phuonglinh.service.impl;
 
 import com.phuonglinh.dto.BookSearchCriteria;
+import com.phuonglinh.dto.BookSummary;
+import com.phuonglinh.dto.BulkResult;
+import com.phuonglinh.dto.CursorPage;
+import com.phuonglinh.dto.CursorRequest;
+import com.phuonglinh.dto.ImportReport;
 import com.phuonglinh.dto.Page;
 import com.phuonglinh.dto.PageRequest;
 import com.phuonglinh.entity.Book;
+import com.phuonglinh.enums.ImportFormat;
 import com.phuonglinh.exception.BusinessRuleViolationException;
 import com.phuonglinh.exception.EntityNotFoundException;
+import com.phuonglinh.exception.ValidationException;
+import com.phuonglinh.importer.StreamingBookImporter;
+import com.phuonglinh.index.AvailabilityIndex;
+import com.phuonglinh.index.BorrowLeaderboard;
+import com.phuonglinh.index.OverdueTracker;
 import com.phuonglinh.repository.BookRepository;
+import com.phuonglinh.repository.BulkRepository;
 import com.phuonglinh.repository.impl.BookRepositoryImpl;
+import com.phuonglinh.repository.impl.BulkRepositoryImpl;
+import com.phuonglinh.search.BookSearchIndex;
 import com.phuonglinh.service.BookService;
-import com.phuonglinh.util.HibernateUtil;
+import com.phuonglinh.util.CountEstimator;
+import com.phuonglinh.util.UnitOfWork;
 import com.phuonglinh.util.ValidationUtil;
-import org.hibernate.Session;
-import org.hibernate.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 
 public class BookServiceImpl implements BookService {
     private static final Logger log = LoggerFactory.getLogger(BookServiceImpl.class);
+    private static final int JDBC_BATCH_SIZE = Integer.getInteger("lms.jdbc.batchSize", 50);
     private final BookRepository repository;
+    private final BulkRepository bulkRepository;
+    private final BookSearchIndex searchIndex;
+    private final BorrowLeaderboard leaderboard;
+    private final OverdueTracker overdueTracker;
+    private final AvailabilityIndex availabilityIndex;
+    private final CountEstimator countEstimator;
 
     public BookServiceImpl() {
         this.repository = new BookRepositoryImpl();
+        this.bulkRepository = new BulkRepositoryImpl();
+        this.searchIndex = BookSearchIndex.getInstance();
+        this.leaderboard = BorrowLeaderboard.getInstance();
+        this.overdueTracker = OverdueTracker.getInstance();
+        this.availabilityIndex = AvailabilityIndex.getInstance();
+        this.countEstimator = CountEstimator.getInstance();
     }
 
     @Override
     public Book create(Book book) {
         String traceId = MDC.get("correlationId");
         long start = System.nanoTime();
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Transaction tx = session.beginTransaction();
-            ValidationUtil.validate(book);
-            Book result = repository.save(book);
-            tx.commit();
+        try {
+            Book result = UnitOfWork.write(() -> {
+                ValidationUtil.validate(book);
+                Book saved = repository.save(book);
+                UnitOfWork.afterCommit(() -> {
+                    searchIndex.index(saved);
+                    availabilityIndex.index(saved);
+                    countEstimator.invalidate("Book.");
+                });
+                return saved;
+            });
             log.info("[{}] Created book '{}' (ID: {}) in {} ms", 
                     traceId, result.getTitle(), result.getId(),
                     (System.nanoTime() - start) / 1_000_000);
@@ -49,9 +85,9 @@ public class BookServiceImpl implements BookService {
     @Override
     public Book getById(Long id) {
         String traceId = MDC.get("correlationId");
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return repository.findById(id)
-                    .orElseThrow(() -> new EntityNotFoundException("No book found with ID: " + id));
+        try {
+            return UnitOfWork.readOnly(() -> repository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("No book found with ID: " + id)));
         } catch (Exception ex) {
             log.error("[{}] Error fetching book ID: {}", traceId, id, ex);
             throw ex;
@@ -62,17 +98,23 @@ public class BookServiceImpl implements BookService {
     public Book update(Long id, Book book) {
         String traceId = MDC.get("correlationId");
         long start = System.nanoTime();
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Transaction tx = session.beginTransaction();
-            Book current = repository.findById(id)
-                    .orElseThrow(() -> new EntityNotFoundException("No book found with ID: " + id));
-            current.setTitle(book.getTitle());
-            current.setCategory(book.getCategory());
-            current.setDescription(book.getDescription());
-            current.setIsbn(book.getIsbn());
-            ValidationUtil.validate(current);
-            Book updated = repository.save(current);
-            tx.commit();
+        try {
+            Book updated = UnitOfWork.write(() -> {
+                Book current = repository.findById(id)
+                        .orElseThrow(() -> new EntityNotFoundException("No book found with ID: " + id));
+                current.setTitle(book.getTitle());
+                current.setCategory(book.getCategory());
+                current.setDescription(book.getDescription());
+                current.setIsbn(book.getIsbn());
+                ValidationUtil.validate(current);
+                Book saved = repository.save(current);
+                UnitOfWork.afterCommit(() -> {
+                    searchIndex.index(saved);
+                    availabilityIndex.index(saved);
+                    countEstimator.invalidate("Book.");
+                });
+                return saved;
+            });
             log.info("[{}] Updated book ID: {} in {} ms", 
                     traceId, id, (System.nanoTime() - start) / 1_000_000);
             return updated;
@@ -85,15 +127,21 @@ public class BookServiceImpl implements BookService {
     @Override
     public void delete(Long id) {
         String traceId = MDC.get("correlationId");
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Transaction tx = session.beginTransaction();
-            Book target = repository.findById(id)
-                    .orElseThrow(() -> new EntityNotFoundException("No book found with ID: " + id));
-            if (repository.hasActiveBorrowings(id)) {
-                throw new BusinessRuleViolationException("Book has active borrowings and cannot be deleted");
-            }
-            repository.delete(target);
-            tx.commit();
+        try {
+            UnitOfWork.write(() -> {
+                Book target = repository.findById(id)
+                        .orElseThrow(() -> new EntityNotFoundException("No book found with ID: " + id));
+                if (repository.hasActiveBorrowings(id)) {
+                    throw new BusinessRuleViolationException("Book has active borrowings and cannot be deleted");
+                }
+                repository.delete(target);
+                UnitOfWork.afterCommit(() -> {
+                    searchIndex.remove(id);
+                    availabilityIndex.remove(id);
+                    leaderboard.remove(id);
+                    countEstimator.invalidate("Book.");
+                });
+            });
             log.info("[{}] Deleted book ID: {}", traceId, id);
         } catch (Exception ex) {
             log.error("[{}] Failed to delete book ID: {}", traceId, id, ex);
@@ -103,35 +151,69 @@ public class BookServiceImpl implements BookService {
 
     @Override
     public Page<Book> search(BookSearchCriteria criteria, PageRequest pageRequest) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return repository.search(criteria, pageRequest);
-        }
+        return UnitOfWork.replicaRead(() -> repository.search(criteria, pageRequest));
+    }
+
+    @Override
+    public CursorPage<Book> search(BookSearchCriteria criteria, CursorRequest cursorRequest) {
+        return UnitOfWork.replicaRead(() -> repository.search(criteria, cursorRequest));
     }
 
     @Override
     public List<Book> listByAuthor(Long authorId, int limit) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return repository.findByAuthor(authorId, limit);
-        }
+        return UnitOfWork.replicaRead(() -> repository.findByAuthor(authorId, limit));
     }
 
     @Override
     public List<Book> topBorrowed(int limit) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return repository.findTopBorrowed(limit);
+        return UnitOfWork.replicaRead(() -> repository.findTopBorrowed(limit));
+    }
+
+    @Override
+    public List<Book> topBorrowed(int limit, int lastDays) {
+        if (lastDays <= 0) {
+            throw new ValidationException("lastDays must be positive");
+        }
+        return UnitOfWork.replicaRead(() -> repository.findTopBorrowedSince(LocalDate.now().minusDays(lastDays - 1), limit));
+    }
+
+    @Override
+    public Page<BookSummary> searchSummaries(BookSearchCriteria criteria, PageRequest pageRequest) {
+        return UnitOfWork.replicaRead(() -> repository.searchSummaries(criteria, pageRequest));
+    }
+
+    @Override
+    public List<BookSummary> listSummariesByAuthor(Long authorId, int limit) {
+        return UnitOfWork.replicaRead(() -> repository.findSummariesByAuthor(authorId, limit));
+    }
+
+    @Override
+    public List<BookSummary> topBorrowedSummaries(int limit) {
+        return UnitOfWork.replicaRead(() -> repository.findTopBorrowedSummaries(limit));
+    }
+
+    @Override
+    public List<BookSummary> topBorrowedSummaries(int limit, int lastDays) {
+        if (lastDays <= 0) {
+            throw new ValidationException("lastDays must be positive");
         }
+        return UnitOfWork.replicaRead(() -> repository.findTopBorrowedSummariesSince(LocalDate.now().minusDays(lastDays - 1), limit));
     }
 
     @Override
     public void changeAvailability(Long id, boolean available) {
         String traceId = MDC.get("correlationId");
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Transaction tx = session.beginTransaction();
-            if (!repository.existsById(id)) {
-                throw new EntityNotFoundException("No book found with ID: " + id);
-            }
-            repository.changeAvailability(id, available);
-            tx.commit();
+        try {
+            UnitOfWork.write(() -> {
+                if (!repository.existsById(id)) {
+                    throw new EntityNotFoundException("No book found with ID: " + id);
+                }
+                repository.changeAvailability(id, available);
+                UnitOfWork.afterCommit(() -> {
+                    availabilityIndex.setAvailable(Collections.singletonList(id), available);
+                    countEstimator.invalidate("Book.");
+                });
+            });
             log.info("[{}] Changed availability of book ID: {} to {}", traceId, id, available);
         } catch (Exception ex) {
             log.error("[{}] Failed to change availability for book ID: {}", traceId, id, ex);
@@ -139,33 +221,44 @@ public class BookServiceImpl implements BookService {
         }
     }
 
+    // Served from the availability index; a null category counts every book
+    @Override
+    public int countAvailable(String category) {
+        return category == null ? availabilityIndex.countAvailable() : availabilityIndex.countAvailable(category);
+    }
+
     @Override
     public List<Book> findOverdueByDays(int days) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return repository.findOverdueByDays(days);
-        }
+        LocalDate referenceDate = LocalDate.now().minusDays(days);
+        List<Long> bookIds = overdueTracker.overdueBookIds(referenceDate);
+        // The tracker can lag changes made elsewhere until its next resync, so the rows are re-checked
+        return UnitOfWork.readOnly(() -> repository.findOverdueById(bookIds, referenceDate));
     }
 
     @Override
     public Book getCached(Long id) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return session.get(Book.class, id);
-        }
+        return UnitOfWork.readOnly(() -> repository.findById(id).orElse(null));
     }
 
     @Override
-    public void bulkImport(List<Book> books, int batchSize) {
+    public BulkResult bulkImport(List<Book> books, int batchSize) {
         String traceId = MDC.get("correlationId");
         long start = System.nanoTime();
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Transaction tx = session.beginTransaction();
+        try {
             for (Book b : books) {
                 ValidationUtil.validate(b);
             }
-            repository.saveAll(books, batchSize);
-            tx.commit();
-            log.info("[{}] Imported {} books in {} ms", 
-                    traceId, books.size(), (System.nanoTime() - start) / 1_000_000);
+            BulkResult result = bulkRepository.bulkInsert(books, batchSize);
+            books.forEach(searchIndex::index);
+            books.forEach(availabilityIndex::index);
+            countEstimator.invalidate("Book.");
+            long elapsedNanos = System.nanoTime() - start;
+            result.setElapsedMs(elapsedNanos / 1_000_000);
+            log.info("[{}] Imported {} books in {} ms ({} rows/sec, {} statements)",
+                    traceId, books.size(), elapsedNanos / 1_000_000,
+                    elapsedNanos > 0 ? books.size() * 1_000_000_000L / elapsedNanos : books.size(),
+                    result.getStatements());
+            return result;
         } catch (Exception ex) {
             log.error("[{}] Bulk import failed", traceId, ex);
             throw ex;
@@ -173,18 +266,64 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
-    public void bulkUpdateAvailability(List<Long> bookIds, boolean available, int batchSize) {
+    public BulkResult bulkUpdateAvailability(List<Long> bookIds, boolean available, int batchSize) {
         String traceId = MDC.get("correlationId");
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Chunk size and batch size must be positive");
+        }
         long start = System.nanoTime();
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Transaction tx = session.beginTransaction();
-            repository.updateAvailabilityBatch(bookIds, available, batchSize);
-            tx.commit();
-            log.info("[{}] Bulk updated {} books in {} ms", 
-                    traceId, bookIds.size(), (System.nanoTime() - start) / 1_000_000);
+        try {
+            // A bulk HQL update would empty the whole Book cache region; this evicts only these books
+            int rows = UnitOfWork.write(() -> {
+                int updated = repository.updateAvailabilityBatch(bookIds, available, batchSize);
+                UnitOfWork.afterCommit(() -> {
+                    availabilityIndex.setAvailable(bookIds, available);
+                    countEstimator.invalidate("Book.");
+                });
+                return updated;
+            });
+            // Each batch is exactly one UPDATE over plain JDBC, which statistics do not see
+            BulkResult result = new BulkResult((bookIds.size() + batchSize - 1) / batchSize, rows,
+                    (System.nanoTime() - start) / 1_000_000);
+            log.info("[{}] Bulk updated {} books with {} statements in {} ms",
+                    traceId, result.getRows(), result.getStatements(), result.getElapsedMs());
+            return result;
         } catch (Exception ex) {
             log.error("[{}] Bulk update availability failed", traceId, ex);
             throw ex;
         }
     }
+
+    @Override
+    public ImportReport importBooks(Path source, ImportFormat format, int chunkSize) {
+        String traceId = MDC.get("correlationId");
+        try {
+            ImportReport report = importer(chunkSize).importFrom(source, format);
+            log.info("[{}] Imported {} books from {} ({} rejected, {} rows/sec)",
+                    traceId, report.getRowsImported(), source, report.getRowsRejected(), report.getRowsPerSecond());
+            return report;
+        } catch (Exception ex) {
+            log.error("[{}] Import from {} failed; rerun to resume from the last committed chunk", traceId, source, ex);
+            throw ex;
+        }
+    }
+
+    @Override
+    public ImportReport importBooks(InputStream source, ImportFormat format, int chunkSize) {
+        String traceId = MDC.get("correlationId");
+        try {
+            ImportReport report = importer(chunkSize).importFrom(source, format);
+            log.info("[{}] Imported {} books from stream ({} rejected, {} rows/sec)",
+                    traceId, report.getRowsImported(), report.getRowsRejected(), report.getRowsPerSecond());
+            return report;
+        } catch (Exception ex) {
+            log.error("[{}] Import from stream failed", traceId, ex);
+            throw ex;
+        }
+    }
+
+    private StreamingBookImporter importer(int chunkSize) {
+        return new StreamingBookImporter(bulkRepository, repository, searchIndex, availabilityIndex,
+                chunkSize, Math.min(chunkSize, JDBC_BATCH_SIZE));
+    }
 }
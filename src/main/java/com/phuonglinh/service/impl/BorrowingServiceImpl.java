@@ -1,43 +1,82 @@
 package com.phuonglinh.service.impl;
 
 import com.phuonglinh.dto.BorrowBooksRequest;
+import com.phuonglinh.dto.BorrowingRow;
+import com.phuonglinh.dto.BorrowingStatusRow;
+import com.phuonglinh.dto.BulkResult;
+import com.phuonglinh.dto.BulkReturnResult;
+import com.phuonglinh.dto.ContentionStats;
+import com.phuonglinh.dto.OverdueBorrowingRow;
+import com.phuonglinh.dto.OverdueItem;
 import com.phuonglinh.dto.Page;
 import com.phuonglinh.dto.PageRequest;
 import com.phuonglinh.entity.Book;
 import com.phuonglinh.entity.Borrowing;
 import com.phuonglinh.entity.Member;
 import com.phuonglinh.enums.BorrowingStatus;
+import com.phuonglinh.enums.FetchPlan;
+import com.phuonglinh.enums.ReturnOutcome;
 import com.phuonglinh.exception.BusinessRuleViolationException;
+import com.phuonglinh.exception.ConcurrencyConflictException;
 import com.phuonglinh.exception.EntityNotFoundException;
+import com.phuonglinh.index.AvailabilityIndex;
+import com.phuonglinh.index.BorrowLeaderboard;
+import com.phuonglinh.index.OverdueTracker;
 import com.phuonglinh.repository.BookRepository;
 import com.phuonglinh.repository.BorrowingRepository;
+import com.phuonglinh.repository.BulkRepository;
 import com.phuonglinh.repository.MemberRepository;
 import com.phuonglinh.repository.impl.BookRepositoryImpl;
 import com.phuonglinh.repository.impl.BorrowingRepositoryImpl;
+import com.phuonglinh.repository.impl.BulkRepositoryImpl;
 import com.phuonglinh.repository.impl.MemberRepositoryImpl;
 import com.phuonglinh.service.BorrowingService;
-import com.phuonglinh.util.HibernateUtil;
+import com.phuonglinh.util.CountEstimator;
+import com.phuonglinh.util.OptimisticRetry;
+import com.phuonglinh.util.UnitOfWork;
 import com.phuonglinh.util.ValidationUtil;
-import org.hibernate.Session;
-import org.hibernate.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class BorrowingServiceImpl implements BorrowingService {
     private static final Logger log = LoggerFactory.getLogger(BorrowingServiceImpl.class);
+    private static final int DEFAULT_RETURN_CHUNK_SIZE = Integer.getInteger("lms.return.chunkSize", 500);
+    private static final OptimisticRetry CHECKOUT_RETRY = new OptimisticRetry("Checkout",
+            Integer.getInteger("lms.checkout.maxAttempts", 5),
+            Long.getLong("lms.checkout.backoffMs", 10),
+            Long.getLong("lms.checkout.maxBackoffMs", 200));
+    private static final OptimisticRetry RETURN_RETRY = new OptimisticRetry("Return",
+            Integer.getInteger("lms.return.maxAttempts", 5),
+            Long.getLong("lms.return.backoffMs", 10),
+            Long.getLong("lms.return.maxBackoffMs", 200));
     private final BorrowingRepository borrowingRepo;
     private final BookRepository bookRepo;
     private final MemberRepository memberRepo;
+    private final BulkRepository bulkRepo;
+    private final BorrowLeaderboard leaderboard;
+    private final OverdueTracker overdueTracker;
+    private final AvailabilityIndex availabilityIndex;
+    private final CountEstimator countEstimator;
 
     public BorrowingServiceImpl() {
         this.borrowingRepo = new BorrowingRepositoryImpl();
         this.bookRepo = new BookRepositoryImpl();
         this.memberRepo = new MemberRepositoryImpl();
+        this.bulkRepo = new BulkRepositoryImpl();
+        this.leaderboard = BorrowLeaderboard.getInstance();
+        this.overdueTracker = OverdueTracker.getInstance();
+        this.availabilityIndex = AvailabilityIndex.getInstance();
+        this.countEstimator = CountEstimator.getInstance();
     }
 
     @Override
@@ -45,39 +84,82 @@ public class BorrowingServiceImpl implements BorrowingService {
         String traceId = MDC.get("correlationId");
         long start = System.nanoTime();
 
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Transaction tx = session.beginTransaction();
-            ValidationUtil.validate(request);
+        try {
+            List<Borrowing> results = CHECKOUT_RETRY.execute(() -> UnitOfWork.write(() -> checkout(request)));
+            log.info("[{}] Borrowed {} books in {} ms", traceId, results.size(), (System.nanoTime() - start) / 1_000_000);
+            return results;
+        } catch (Exception e) {
+            log.error("[{}] Failed to borrow books", traceId, e);
+            throw e;
+        }
+    }
 
-            Member member = memberRepo.findById(request.getMemberId())
-                    .orElseThrow(() -> new EntityNotFoundException("Member not found with ID: " + request.getMemberId()));
+    private List<Borrowing> checkout(BorrowBooksRequest request) {
+        ValidationUtil.validate(request);
 
-            List<Borrowing> results = new ArrayList<>();
-            LocalDate today = LocalDate.now();
+        Member member = memberRepo.findById(request.getMemberId())
+                .orElseThrow(() -> new EntityNotFoundException("Member not found with ID: " + request.getMemberId()));
 
-            for (Long bookId : request.getBookIds()) {
-                Book book = bookRepo.findById(bookId)
-                        .orElseThrow(() -> new EntityNotFoundException("Book not found with ID: " + bookId));
+        Set<Long> bookIds = new LinkedHashSet<>(request.getBookIds());
+        if (bookIds.size() != request.getBookIds().size()) {
+            throw new BusinessRuleViolationException("Duplicate book IDs in request: " + request.getBookIds());
+        }
 
-                if (!book.getAvailable()) {
-                    throw new BusinessRuleViolationException("Book not available: " + book.getTitle());
-                }
+        // One IN query instead of a findById per book; no row locks are taken
+        Map<Long, Book> books = new HashMap<>();
+        for (Book book : bookRepo.findForCheckout(bookIds)) {
+            books.put(book.getId(), book);
+        }
 
-                Borrowing borrowing = new Borrowing(member, book, today, request.getDueDate());
-                ValidationUtil.validate(borrowing);
-                results.add(borrowingRepo.save(borrowing));
+        List<Borrowing> borrowings = new ArrayList<>();
+        LocalDate today = LocalDate.now();
 
-                book.setAvailable(false);
-                bookRepo.save(book);
+        for (Long bookId : bookIds) {
+            Book book = books.get(bookId);
+            if (book == null) {
+                throw new EntityNotFoundException("Book not found with ID: " + bookId);
+            }
+            if (!book.getAvailable()) {
+                throw new BusinessRuleViolationException("Book not available: " + book.getTitle());
             }
 
-            tx.commit();
-            log.info("[{}] Borrowed {} books in {} ms", traceId, results.size(), (System.nanoTime() - start) / 1_000_000);
-            return results;
-        } catch (Exception e) {
-            log.error("[{}] Failed to borrow books", traceId, e);
-            throw e;
+            Borrowing borrowing = new Borrowing(member, book, today, request.getDueDate());
+            ValidationUtil.validate(borrowing);
+            borrowings.add(borrowing);
+        }
+
+        // A short count means another checkout claimed a book after our read; the retry re-reads it
+        int claimed = bookRepo.markBorrowed(bookIds);
+        if (claimed != bookIds.size()) {
+            throw new ConcurrencyConflictException("Claimed " + claimed + " of " + bookIds.size()
+                    + " books; another checkout took the rest first");
+        }
+        borrowingRepo.saveAll(borrowings, borrowings.size());
+
+        // The books were loaded read-only, so these changes only mirror the UPDATE for callers
+        Map<Long, Long> borrowCounts = new HashMap<>();
+        for (Borrowing borrowing : borrowings) {
+            Book book = borrowing.getBook();
+            book.setAvailable(false);
+            book.setBorrowCount(book.getBorrowCount() + 1);
+            borrowCounts.put(book.getId(), book.getBorrowCount());
         }
+
+        UnitOfWork.afterCommit(() -> {
+            availabilityIndex.setAvailable(bookIds, false);
+            countEstimator.invalidate("Borrowing.findByMember|" + member.getId() + "|");
+            leaderboard.recordBorrows(borrowCounts, today);
+            for (Borrowing borrowing : borrowings) {
+                overdueTracker.track(new OverdueItem(borrowing.getId(), borrowing.getBook().getId(),
+                        member.getId(), borrowing.getDueDate()));
+            }
+        });
+        return borrowings;
+    }
+
+    @Override
+    public ContentionStats getCheckoutContention() {
+        return CHECKOUT_RETRY.getStats();
     }
 
     @Override
@@ -85,25 +167,18 @@ public class BorrowingServiceImpl implements BorrowingService {
         String traceId = MDC.get("correlationId");
         long start = System.nanoTime();
 
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Transaction tx = session.beginTransaction();
-
-            for (Long id : borrowingIds) {
-                Borrowing b = borrowingRepo.findById(id)
-                        .orElseThrow(() -> new EntityNotFoundException("Borrowing not found with ID: " + id));
-
-                if (b.getStatus() != BorrowingStatus.RETURNED) {
-                    b.setReturnDate(returnDate);
-                    b.setStatus(BorrowingStatus.RETURNED);
-                    borrowingRepo.save(b);
-
-                    Book book = b.getBook();
-                    book.setAvailable(true);
-                    bookRepo.save(book);
+        try {
+            RETURN_RETRY.execute(() -> UnitOfWork.write(() -> {
+                BulkReturnResult result = new BulkReturnResult();
+                for (List<Long> chunk : chunks(borrowingIds, DEFAULT_RETURN_CHUNK_SIZE)) {
+                    returnChunk(chunk, returnDate, result);
                 }
-            }
-
-            tx.commit();
+                List<Long> missing = result.getIds(ReturnOutcome.NOT_FOUND);
+                if (!missing.isEmpty()) {
+                    throw new EntityNotFoundException("Borrowing not found with ID: " + missing.get(0));
+                }
+                return result;
+            }));
             log.info("[{}] Returned {} borrowings in {} ms", traceId, borrowingIds.size(), (System.nanoTime() - start) / 1_000_000);
         } catch (Exception e) {
             log.error("[{}] Failed to return books", traceId, e);
@@ -112,26 +187,107 @@ public class BorrowingServiceImpl implements BorrowingService {
     }
 
     @Override
-    public void extendDueDate(Long borrowingId, LocalDate newDueDate) {
+    public BulkReturnResult returnBooks(List<Long> borrowingIds, LocalDate returnDate, int chunkSize) {
         String traceId = MDC.get("correlationId");
+        long start = System.nanoTime();
+        BulkReturnResult result = new BulkReturnResult();
 
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Transaction tx = session.beginTransaction();
+        // Each chunk commits on its own so a long sweep keeps locks short and progress durable
+        for (List<Long> chunk : chunks(borrowingIds, chunkSize)) {
+            try {
+                RETURN_RETRY.execute(() -> UnitOfWork.write(() -> {
+                    returnChunk(chunk, returnDate, result);
+                    return result;
+                }));
+            } catch (Exception e) {
+                log.error("[{}] Failed to return chunk starting at borrowing ID: {}", traceId, chunk.get(0), e);
+                throw e;
+            }
+        }
 
-            Borrowing borrowing = borrowingRepo.findById(borrowingId)
-                    .orElseThrow(() -> new EntityNotFoundException("Borrowing not found with ID: " + borrowingId));
+        log.info("[{}] Bulk returned {} of {} borrowings ({} already returned, {} not found) in {} ms",
+                traceId, result.count(ReturnOutcome.RETURNED), borrowingIds.size(),
+                result.count(ReturnOutcome.ALREADY_RETURNED), result.count(ReturnOutcome.NOT_FOUND),
+                (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    // One SELECT to classify the IDs, then one UPDATE on borrowings and one on books
+    // Outcomes are recorded only once the UPDATE confirms them, so a conflict leaves the result untouched
+    private void returnChunk(List<Long> ids, LocalDate returnDate, BulkReturnResult result) {
+        Map<Long, BorrowingStatusRow> rows = new HashMap<>();
+        for (BorrowingStatusRow row : borrowingRepo.findStatusRows(ids)) {
+            rows.put(row.getId(), row);
+        }
 
-            if (borrowing.getStatus() == BorrowingStatus.RETURNED) {
-                throw new BusinessRuleViolationException("Cannot extend due date for returned book");
+        List<Long> toReturn = new ArrayList<>();
+        Set<Long> bookIds = new LinkedHashSet<>();
+        for (Long id : ids) {
+            BorrowingStatusRow row = rows.get(id);
+            if (row != null && row.getStatus() != BorrowingStatus.RETURNED) {
+                toReturn.add(id);
+                bookIds.add(row.getBookId());
             }
-            if (!newDueDate.isAfter(borrowing.getDueDate()) || !newDueDate.isAfter(LocalDate.now())) {
-                throw new BusinessRuleViolationException("New due date must be after current due date and today");
+        }
+
+        if (!toReturn.isEmpty()) {
+            // A short count means another return got there after our read; the retry re-reads the chunk
+            int updated = borrowingRepo.markReturned(toReturn, returnDate);
+            if (updated != toReturn.size()) {
+                throw new ConcurrencyConflictException("Returned " + updated + " of " + toReturn.size()
+                        + " borrowings; another return took the rest first");
             }
+            bookRepo.updateAvailabilityBatch(new ArrayList<>(bookIds), true, bookIds.size());
+            UnitOfWork.afterCommit(() -> {
+                availabilityIndex.setAvailable(bookIds, true);
+                overdueTracker.untrackAll(toReturn);
+            });
+        }
+
+        for (Long id : ids) {
+            BorrowingStatusRow row = rows.get(id);
+            if (row == null) {
+                result.record(id, ReturnOutcome.NOT_FOUND);
+            } else if (row.getStatus() == BorrowingStatus.RETURNED) {
+                result.record(id, ReturnOutcome.ALREADY_RETURNED);
+            } else {
+                result.record(id, ReturnOutcome.RETURNED);
+            }
+        }
+    }
 
-            borrowing.setDueDate(newDueDate);
-            borrowingRepo.save(borrowing);
+    private static List<List<Long>> chunks(List<Long> ids, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i += chunkSize) {
+            chunks.add(distinct.subList(i, Math.min(i + chunkSize, distinct.size())));
+        }
+        return chunks;
+    }
 
-            tx.commit();
+    @Override
+    public void extendDueDate(Long borrowingId, LocalDate newDueDate) {
+        String traceId = MDC.get("correlationId");
+
+        try {
+            UnitOfWork.write(() -> {
+                Borrowing borrowing = borrowingRepo.findById(borrowingId)
+                        .orElseThrow(() -> new EntityNotFoundException("Borrowing not found with ID: " + borrowingId));
+
+                if (borrowing.getStatus() == BorrowingStatus.RETURNED) {
+                    throw new BusinessRuleViolationException("Cannot extend due date for returned book");
+                }
+                if (!newDueDate.isAfter(borrowing.getDueDate()) || !newDueDate.isAfter(LocalDate.now())) {
+                    throw new BusinessRuleViolationException("New due date must be after current due date and today");
+                }
+
+                borrowing.setDueDate(newDueDate);
+                borrowingRepo.save(borrowing);
+                UnitOfWork.afterCommit(() -> overdueTracker.reschedule(borrowingId, newDueDate));
+            });
             log.info("[{}] Extended due date for borrowing ID: {} to {}", traceId, borrowingId, newDueDate);
         } catch (Exception e) {
             log.error("[{}] Failed to extend due date for borrowing ID: {}", traceId, borrowingId, e);
@@ -141,29 +297,56 @@ public class BorrowingServiceImpl implements BorrowingService {
 
     @Override
     public Page<Borrowing> findByMember(Long memberId, PageRequest pageRequest) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return borrowingRepo.findByMember(memberId, pageRequest);
-        }
+        return findByMember(memberId, pageRequest, FetchPlan.NONE);
+    }
+
+    @Override
+    public Page<Borrowing> findByMember(Long memberId, PageRequest pageRequest, FetchPlan fetchPlan) {
+        return UnitOfWork.replicaRead(() -> borrowingRepo.findByMember(memberId, pageRequest, fetchPlan));
+    }
+
+    @Override
+    public Page<BorrowingRow> findRowsByMember(Long memberId, PageRequest pageRequest) {
+        return UnitOfWork.replicaRead(() -> borrowingRepo.findRowsByMember(memberId, pageRequest));
     }
 
     @Override
     public List<Borrowing> findActiveByBook(Long bookId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return borrowingRepo.findActiveByBook(bookId);
-        }
+        return findActiveByBook(bookId, FetchPlan.NONE);
+    }
+
+    @Override
+    public List<Borrowing> findActiveByBook(Long bookId, FetchPlan fetchPlan) {
+        return UnitOfWork.readOnly(() -> borrowingRepo.findActiveByBook(bookId, fetchPlan));
     }
 
     @Override
     public List<Borrowing> findOverdue(LocalDate referenceDate) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return borrowingRepo.findOverdue(referenceDate);
-        }
+        return findOverdue(referenceDate, FetchPlan.NONE);
     }
 
     @Override
-    public List<Borrowing> findOverdueByDaysSp(int days) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            return borrowingRepo.findOverdueByDaysSp(days);
+    public List<Borrowing> findOverdue(LocalDate referenceDate, FetchPlan fetchPlan) {
+        List<Long> ids = overdueTracker.overdueBorrowingIds(referenceDate);
+        // The tracker can lag changes made elsewhere until its next resync, so the rows are re-checked
+        return UnitOfWork.readOnly(() -> borrowingRepo.findOverdueById(ids, referenceDate, fetchPlan));
+    }
+
+    @Override
+    public List<OverdueBorrowingRow> findOverdueByDaysSp(int days) {
+        return UnitOfWork.readOnly(() -> borrowingRepo.findOverdueByDaysSp(days));
+    }
+
+    @Override
+    public BulkResult scanOverdue(LocalDate referenceDate, int chunkSize, Consumer<List<Borrowing>> consumer) {
+        String traceId = MDC.get("correlationId");
+        try {
+            BulkResult result = bulkRepo.scanOverdue(referenceDate, chunkSize, consumer);
+            log.info("[{}] Scanned {} overdue borrowings in {} ms", traceId, result.getRows(), result.getElapsedMs());
+            return result;
+        } catch (Exception e) {
+            log.error("[{}] Overdue scan failed", traceId, e);
+            throw e;
         }
     }
 }
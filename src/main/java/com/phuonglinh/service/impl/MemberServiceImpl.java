@@ -1,5 +1,8 @@
 package com.phuonglinh.service.impl;
 
+import com.phuonglinh.dto.CacheRegionStats;
+import com.phuonglinh.dto.CursorPage;
+import com.phuonglinh.dto.CursorRequest;
 import com.phuonglinh.dto.Page;
 import com.phuonglinh.dto.PageRequest;
 import com.phuonglinh.entity.Member;
@@ -9,10 +12,10 @@ import com.phuonglinh.exception.EntityNotFoundException;
 import com.phuonglinh.repository.MemberRepository;
 import com.phuonglinh.repository.impl.MemberRepositoryImpl;
 import com.phuonglinh.service.MemberService;
-import com.phuonglinh.util.HibernateUtil;
+import com.phuonglinh.util.CountEstimator;
+import com.phuonglinh.util.MemberEmailCache;
+import com.phuonglinh.util.UnitOfWork;
 import com.phuonglinh.util.ValidationUtil;
-import org.hibernate.Session;
-import org.hibernate.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -22,9 +25,13 @@ import java.util.Optional;
 public class MemberServiceImpl implements MemberService {
     private static final Logger log = LoggerFactory.getLogger(MemberServiceImpl.class);
     private final MemberRepository memberRepo;
+    private final MemberEmailCache emailCache;
+    private final CountEstimator countEstimator;
 
     public MemberServiceImpl() {
         this.memberRepo = new MemberRepositoryImpl();
+        this.emailCache = MemberEmailCache.getInstance();
+        this.countEstimator = CountEstimator.getInstance();
     }
 
     @Override
@@ -33,23 +40,24 @@ public class MemberServiceImpl implements MemberService {
         long start = System.currentTimeMillis();
         log.info("[{}] Start register member: {}", corrId, member.getEmail());
 
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Transaction tx = session.beginTransaction();
-            try {
+        try {
+            Member saved = UnitOfWork.write(() -> {
                 ValidationUtil.validate(member);
                 ensureEmailUnique(member.getEmail(), corrId);
-
-                Member saved = memberRepo.save(member);
-                tx.commit();
-
-                log.info("[{}] Member registered: {} ({}ms)", corrId, saved.getId(),
-                        System.currentTimeMillis() - start);
-                return saved;
-            } catch (Exception e) {
-                tx.rollback();
-                log.error("[{}] Register failed: {}", corrId, e.getMessage(), e);
-                throw e;
-            }
+                Member created = memberRepo.save(member);
+                UnitOfWork.afterCommit(() -> {
+                    emailCache.invalidate(created.getEmail());
+                    countEstimator.invalidate("Member.");
+                });
+                return created;
+            });
+
+            log.info("[{}] Member registered: {} ({}ms)", corrId, saved.getId(),
+                    System.currentTimeMillis() - start);
+            return saved;
+        } catch (Exception e) {
+            log.error("[{}] Register failed: {}", corrId, e.getMessage(), e);
+            throw e;
         }
     }
 
@@ -57,10 +65,8 @@ public class MemberServiceImpl implements MemberService {
     public Member getById(Long id) {
         String corrId = MDC.get("correlationId");
         log.debug("[{}] Get member by ID: {}", corrId, id);
-        try (Session ignored = HibernateUtil.getSessionFactory().openSession()) {
-            return memberRepo.findById(id)
-                    .orElseThrow(() -> new EntityNotFoundException("Member not found with ID: " + id));
-        }
+        return UnitOfWork.readOnly(() -> memberRepo.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Member not found with ID: " + id)));
     }
 
     @Override
@@ -69,14 +75,18 @@ public class MemberServiceImpl implements MemberService {
         long start = System.currentTimeMillis();
         log.info("[{}] Start update member ID: {}", corrId, id);
 
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Transaction tx = session.beginTransaction();
-            try {
+        try {
+            Member updated = UnitOfWork.write(() -> {
                 Member existing = memberRepo.findById(id)
                         .orElseThrow(() -> new EntityNotFoundException("Member not found with ID: " + id));
 
-                if (!existing.getEmail().equals(member.getEmail())) {
+                String previousEmail = existing.getEmail();
+                if (!previousEmail.equals(member.getEmail())) {
                     ensureEmailUnique(member.getEmail(), corrId);
+                    UnitOfWork.afterCommit(() -> {
+                        emailCache.invalidate(previousEmail);
+                        emailCache.invalidate(member.getEmail());
+                    });
                 }
 
                 existing.setName(member.getName());
@@ -86,17 +96,17 @@ public class MemberServiceImpl implements MemberService {
 
                 ValidationUtil.validate(existing);
 
-                Member updated = memberRepo.save(existing);
-                tx.commit();
-
-                log.info("[{}] Member updated: {} ({}ms)", corrId, id,
-                        System.currentTimeMillis() - start);
-                return updated;
-            } catch (Exception e) {
-                tx.rollback();
-                log.error("[{}] Update failed for ID {}: {}", corrId, id, e.getMessage(), e);
-                throw e;
-            }
+                // Searches match on name and email
+                UnitOfWork.afterCommit(() -> countEstimator.invalidate("Member."));
+                return memberRepo.save(existing);
+            });
+
+            log.info("[{}] Member updated: {} ({}ms)", corrId, id,
+                    System.currentTimeMillis() - start);
+            return updated;
+        } catch (Exception e) {
+            log.error("[{}] Update failed for ID {}: {}", corrId, id, e.getMessage(), e);
+            throw e;
         }
     }
 
@@ -105,9 +115,8 @@ public class MemberServiceImpl implements MemberService {
         String corrId = MDC.get("correlationId");
         log.info("[{}] Deleting member ID: {}", corrId, id);
 
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Transaction tx = session.beginTransaction();
-            try {
+        try {
+            UnitOfWork.write(() -> {
                 Member member = memberRepo.findById(id)
                         .orElseThrow(() -> new EntityNotFoundException("Member not found with ID: " + id));
 
@@ -117,13 +126,15 @@ public class MemberServiceImpl implements MemberService {
                 }
 
                 memberRepo.delete(member);
-                tx.commit();
-                log.info("[{}] Member deleted: {}", corrId, id);
-            } catch (Exception e) {
-                tx.rollback();
-                log.error("[{}] Delete failed for ID {}: {}", corrId, id, e.getMessage(), e);
-                throw e;
-            }
+                UnitOfWork.afterCommit(() -> {
+                    emailCache.invalidate(member.getEmail());
+                    countEstimator.invalidate("Member.");
+                });
+            });
+            log.info("[{}] Member deleted: {}", corrId, id);
+        } catch (Exception e) {
+            log.error("[{}] Delete failed for ID {}: {}", corrId, id, e.getMessage(), e);
+            throw e;
         }
     }
 
@@ -131,40 +142,56 @@ public class MemberServiceImpl implements MemberService {
     public Optional<Member> findByEmail(String email) {
         String corrId = MDC.get("correlationId");
         log.debug("[{}] Find member by email: {}", corrId, email);
-        try (Session ignored = HibernateUtil.getSessionFactory().openSession()) {
-            return memberRepo.findByEmail(email);
-        }
+        return UnitOfWork.readOnly(() -> {
+            Optional<Long> id = emailCache.memberId(email, () -> memberRepo.findIdByEmail(email));
+            if (!id.isPresent()) {
+                return Optional.<Member>empty();
+            }
+            Optional<Member> member = memberRepo.findById(id.get());
+            if (!member.isPresent() || !member.get().getEmail().equals(email)) {
+                // Changed by another process since it was cached
+                emailCache.invalidate(email);
+                return memberRepo.findByEmail(email);
+            }
+            return member;
+        });
+    }
+
+    @Override
+    public CacheRegionStats getEmailCacheStats() {
+        return emailCache.stats();
     }
 
     @Override
     public Page<Member> search(String searchTerm, PageRequest pageRequest) {
         String corrId = MDC.get("correlationId");
         log.debug("[{}] Search members: {}", corrId, searchTerm);
-        try (Session ignored = HibernateUtil.getSessionFactory().openSession()) {
-            return memberRepo.search(searchTerm, pageRequest);
-        }
+        return UnitOfWork.replicaRead(() -> memberRepo.search(searchTerm, pageRequest));
+    }
+
+    @Override
+    public CursorPage<Member> search(String searchTerm, CursorRequest cursorRequest) {
+        String corrId = MDC.get("correlationId");
+        log.debug("[{}] Search members (cursor): {}", corrId, searchTerm);
+        return UnitOfWork.replicaRead(() -> memberRepo.search(searchTerm, cursorRequest));
     }
 
     @Override
     public boolean isEligibleToBorrow(Long memberId) {
         String corrId = MDC.get("correlationId");
         log.debug("[{}] Check eligibility for ID: {}", corrId, memberId);
-        try (Session ignored = HibernateUtil.getSessionFactory().openSession()) {
-            return memberRepo.countActiveBorrowings(memberId) <= 4;
-        }
+        return UnitOfWork.readOnly(() -> memberRepo.countActiveBorrowings(memberId) <= 4);
     }
 
     @Override
     public long countActiveBorrowings(Long memberId) {
         String corrId = MDC.get("correlationId");
         log.debug("[{}] Count active borrowings for ID: {}", corrId, memberId);
-        try (Session ignored = HibernateUtil.getSessionFactory().openSession()) {
-            return memberRepo.countActiveBorrowings(memberId);
-        }
+        return UnitOfWork.readOnly(() -> memberRepo.countActiveBorrowings(memberId));
     }
 
     private void ensureEmailUnique(String email, String corrId) {
-        if (memberRepo.findByEmail(email).isPresent()) {
+        if (emailCache.memberId(email, () -> memberRepo.findIdByEmail(email)).isPresent()) {
             log.warn("[{}] Email already exists: {}", corrId, email);
             throw new DuplicateResourceException("Email already exists: " + email);
         }
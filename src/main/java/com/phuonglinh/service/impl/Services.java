@@ -0,0 +1,28 @@
+package com.phuonglinh.service.impl;
+
+import com.phuonglinh.metrics.Instrumented;
+import com.phuonglinh.service.BookService;
+import com.phuonglinh.service.BorrowingService;
+import com.phuonglinh.service.MemberService;
+
+/**
+ * Builds the blocking services wrapped by {@link Instrumented}, so their calls are timed, counted
+ * and held to their statement budgets. Construct the implementations directly only where that
+ * is unwanted.
+ */
+public final class Services {
+
+    private Services() {}
+
+    public static BookService bookService() {
+        return Instrumented.service(BookService.class, new BookServiceImpl());
+    }
+
+    public static MemberService memberService() {
+        return Instrumented.service(MemberService.class, new MemberServiceImpl());
+    }
+
+    public static BorrowingService borrowingService() {
+        return Instrumented.service(BorrowingService.class, new BorrowingServiceImpl());
+    }
+}
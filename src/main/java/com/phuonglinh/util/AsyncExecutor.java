@@ -0,0 +1,134 @@
+package com.phuonglinh.util;
+
+import com.phuonglinh.dto.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs service calls off the caller's thread for the async service facades. Uses a virtual thread
+ * per task on JDKs that have them and a fixed platform pool otherwise. At most
+ * {@code lms.async.maxConcurrency} tasks run at once, by default the connection pool's maximum
+ * size, since every task opens its own unit of work and holds a connection while it runs. The
+ * caller's MDC is carried over so log lines keep their correlation ID.
+ */
+public class AsyncExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncExecutor.class);
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final boolean virtual;
+
+    AsyncExecutor(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+        ExecutorService virtualExecutor = newVirtualThreadExecutor();
+        this.virtual = virtualExecutor != null;
+        this.executor = virtual ? virtualExecutor : newPlatformExecutor(maxConcurrency);
+        logger.info("Async executor: {} threads, at most {} concurrent tasks",
+                virtual ? "virtual" : "platform", maxConcurrency);
+    }
+
+    public static AsyncExecutor getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return CompletableFuture.supplyAsync(() -> {
+            acquire();
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            setMdc(mdc);
+            try {
+                return work.get();
+            } finally {
+                setMdc(previous);
+                permits.release();
+            }
+        }, executor);
+    }
+
+    public CompletableFuture<Void> run(Runnable work) {
+        return supply(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // Never blocks on the platform pool, which is sized to the limit; virtual threads park here cheaply
+    private void acquire() {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private static void setMdc(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+
+    // Looked up reflectively because the code still compiles for Java 8
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "lms-async-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static int defaultConcurrency() {
+        Integer configured = Integer.getInteger("lms.async.maxConcurrency");
+        if (configured != null) {
+            return configured;
+        }
+        PoolStats pool = ConnectionPoolStatistics.snapshot();
+        return pool != null ? pool.getMaximumPoolSize() : Integer.getInteger("lms.pool.maxSize", 20);
+    }
+
+    private static class Holder {
+        private static final AsyncExecutor INSTANCE = new AsyncExecutor(defaultConcurrency());
+    }
+}
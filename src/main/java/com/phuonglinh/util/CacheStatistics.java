@@ -0,0 +1,58 @@
+package com.phuonglinh.util;
+
+import com.phuonglinh.dto.CacheRegionStats;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class CacheStatistics {
+    private static final Logger logger = LoggerFactory.getLogger(CacheStatistics.class);
+
+    private CacheStatistics() {}
+
+    public static List<CacheRegionStats> snapshot() {
+        Statistics statistics = HibernateUtil.getSessionFactory().getStatistics();
+        List<CacheRegionStats> result = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats == null) {
+                continue;
+            }
+            result.add(new CacheRegionStats(region, stats.getHitCount(), stats.getMissCount(),
+                    stats.getPutCount(), evictions(region), stats.getElementCountInMemory()));
+        }
+        return result;
+    }
+
+    public static void log() {
+        for (CacheRegionStats stats : snapshot()) {
+            logger.info("{} (hit ratio {})", stats, String.format("%.2f", stats.getHitRatio()));
+        }
+    }
+
+    // Hibernate does not track evictions; the JCache provider publishes them as an MBean attribute
+    private static long evictions(String region) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            String cacheName = region.replaceAll("[,:=\n]", ".");
+            Set<ObjectName> names = server.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,CacheManager=*,Cache=" + cacheName), null);
+            long evictions = 0;
+            for (ObjectName name : names) {
+                evictions += ((Number) server.getAttribute(name, "CacheEvictions")).longValue();
+            }
+            return evictions;
+        } catch (Exception e) {
+            logger.debug("Eviction count unavailable for region {}", region, e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.phuonglinh.util;
+
+import com.phuonglinh.dto.PoolStats;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ConnectionPoolStatistics {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolStatistics.class);
+
+    private ConnectionPoolStatistics() {}
+
+    /**
+     * Returns current pool usage, or null when the SessionFactory is not backed by HikariCP
+     * or the pool has not started yet.
+     */
+    public static PoolStats snapshot() {
+        return snapshot(HibernateUtil.getSessionFactory());
+    }
+
+    public static PoolStats snapshot(SessionFactory sessionFactory) {
+        ConnectionProvider provider = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class);
+        if (provider == null || !provider.isUnwrappableAs(HikariDataSource.class)) {
+            return null;
+        }
+        HikariDataSource dataSource = provider.unwrap(HikariDataSource.class);
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return null;
+        }
+        return new PoolStats(dataSource.getPoolName(), pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getTotalConnections(), pool.getThreadsAwaitingConnection(), dataSource.getMaximumPoolSize());
+    }
+
+    public static void log() {
+        PoolStats stats = snapshot();
+        if (stats == null) {
+            logger.info("Connection pool statistics unavailable (HikariCP not in use)");
+        } else {
+            logger.info("{} (utilization {})", stats, String.format("%.2f", stats.getUtilization()));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.phuonglinh.util;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Caches row counts per query shape for {@code CountMode.ESTIMATED}. A missing count is computed
+ * inline once; afterwards stale counts are served as-is while a background thread recounts.
+ * Keys start with the entity name ({@code Book.}, {@code Member.}, {@code Borrowing.}), and the
+ * services drop the affected prefix after commits that add, remove or edit rows. Checkouts and
+ * returns only flip availability and are left to {@code lms.count.ttlSeconds}. At most
+ * {@code lms.count.maxEntries} counts are kept, evicting the least recently used.
+ */
+public class CountEstimator {
+    private static final Logger logger = LoggerFactory.getLogger(CountEstimator.class);
+    private static final CountEstimator INSTANCE = new CountEstimator(
+            TimeUnit.SECONDS.toMillis(Long.getLong("lms.count.ttlSeconds", 60)),
+            Integer.getInteger("lms.count.maxEntries", 10_000));
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    // Access-ordered, so the least recently used count goes once maxEntries is reached
+    private final Map<String, Estimate> estimates = new LinkedHashMap<String, Estimate>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Estimate> eldest) {
+            return size() > maxEntries;
+        }
+    };
+    // Bumped by every invalidate; a count started under an older generation may predate it
+    private long generation;
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "count-estimator");
+        t.setDaemon(true);
+        return t;
+    });
+
+    CountEstimator(long ttlMillis, int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    public static CountEstimator getInstance() {
+        return INSTANCE;
+    }
+
+    public long estimate(String key, Session session, Function<Session, Long> counter) {
+        Estimate estimate;
+        long startGeneration;
+        synchronized (this) {
+            estimate = estimates.get(key);
+            startGeneration = generation;
+        }
+        if (estimate == null) {
+            long count = count(session, counter);
+            store(key, count, startGeneration);
+            return count;
+        }
+        if (estimate.isStale(ttlMillis) && estimate.refreshing.compareAndSet(false, true)) {
+            refresher.execute(() -> refresh(key, counter, estimate, startGeneration));
+        }
+        return estimate.count;
+    }
+
+    /**
+     * Drops the counts whose key starts with {@code keyPrefix}; the next estimate counts inline.
+     * Counts still in flight are discarded rather than stored, as they may have read the old rows.
+     */
+    public synchronized void invalidate(String keyPrefix) {
+        generation++;
+        estimates.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    private void refresh(String key, Function<Session, Long> counter, Estimate stale, long startGeneration) {
+        try {
+            long count = UnitOfWork.readOnly(() -> count(UnitOfWork.currentSession(), counter));
+            if (!store(key, count, startGeneration)) {
+                stale.refreshing.set(false);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to refresh count estimate for {}", key, e);
+            stale.refreshing.set(false);
+        }
+    }
+
+    private synchronized boolean store(String key, long count, long startGeneration) {
+        if (startGeneration != generation) {
+            return false;
+        }
+        estimates.put(key, new Estimate(count));
+        return true;
+    }
+
+    private static long count(Session session, Function<Session, Long> counter) {
+        Long count = counter.apply(session);
+        return count != null ? count : 0;
+    }
+
+    private static class Estimate {
+        private final long count;
+        private final long computedAt = System.currentTimeMillis();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Estimate(long count) {
+            this.count = count;
+        }
+
+        boolean isStale(long ttlMillis) {
+            return System.currentTimeMillis() - computedAt > ttlMillis;
+        }
+    }
+}
@@ -1,29 +1,200 @@
 package com.phuonglinh.util;
 
+import com.phuonglinh.enums.ReplicaSelection;
+import com.phuonglinh.metrics.InstrumentedConnectionProvider;
+import com.phuonglinh.metrics.MetricsStatistics;
+import com.phuonglinh.metrics.StatementAuditor;
 import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class HibernateUtil {
     private static final Logger logger = LoggerFactory.getLogger(HibernateUtil.class);
+    private static final String HIKARI_PROVIDER = "org.hibernate.hikaricp.internal.HikariCPConnectionProvider";
+    private static final String HIKARI_PREFIX = "hibernate.hikari.";
     private static SessionFactory sessionFactory;
+    private static ReplicaRouter replicaRouter;
 
     static {
         try {
-            sessionFactory = new Configuration().configure().buildSessionFactory();
+            sessionFactory = buildSessionFactory(new Configuration().configure());
             logger.info("Hibernate SessionFactory created successfully");
+            replicaRouter = buildReplicaRouter(System.getProperty("lms.replicas", ""),
+                    lagProbe(System.getProperty("lms.replica.lagProbe", "mysql")));
         } catch (Exception e) {
             logger.error("Failed to create SessionFactory", e);
             throw new ExceptionInInitializerError(e);
         }
     }
 
+    private static SessionFactory buildSessionFactory(Configuration configuration) {
+        applyBatchingDefaults(configuration);
+        applyCacheDefaults(configuration);
+        applyPoolDefaults(configuration);
+        applyMetricsDefaults(configuration);
+        return configuration.buildSessionFactory();
+    }
+
+    /**
+     * Builds one SessionFactory per JDBC URL in {@code urls} (comma separated). Replicas share the
+     * primary's mapping and settings, except that they never touch the schema, get their own pool
+     * and run without the second-level and query cache: the regions are shared per JVM, so a
+     * lagging replica would otherwise cache stale rows for the primary's readers too.
+     */
+    static ReplicaRouter buildReplicaRouter(String urls, ReplicaLagProbe lagProbe) {
+        List<ReplicaRouter.Replica> replicas = new ArrayList<>();
+        urls = urls.trim();
+        if (!urls.isEmpty()) {
+            int index = 0;
+            for (String url : urls.split(",")) {
+                index++;
+                Configuration configuration = new Configuration().configure();
+                configuration.setProperty(AvailableSettings.URL, url.trim());
+                configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, "none");
+                configuration.setProperty(HIKARI_PREFIX + "poolName", "lms-replica-" + index);
+                configuration.setProperty(HIKARI_PREFIX + "readOnly", "true");
+                configuration.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+                configuration.setProperty(AvailableSettings.USE_QUERY_CACHE, "false");
+                if (System.getProperty("lms.replica.username") != null) {
+                    configuration.setProperty(AvailableSettings.USER, System.getProperty("lms.replica.username"));
+                    configuration.setProperty(AvailableSettings.PASS, System.getProperty("lms.replica.password", ""));
+                }
+                replicas.add(new ReplicaRouter.Replica("replica-" + index, buildSessionFactory(configuration)));
+            }
+        }
+        ReplicaRouter router = new ReplicaRouter(replicas,
+                ReplicaSelection.valueOf(System.getProperty("lms.replica.selection", "ROUND_ROBIN").toUpperCase()),
+                Long.getLong("lms.replica.maxLagMs", 5000),
+                lagProbe);
+        if (router.hasReplicas()) {
+            router.checkLag();
+            router.startLagChecks(Long.getLong("lms.replica.lagCheckMs", 5000));
+            logger.info("Routing read-only work to {} replica(s)", replicas.size());
+        }
+        return router;
+    }
+
+    // -Dlms.replica.lagProbe: mysql (default), none for replicas that cannot report their lag, or
+    // the name of a ReplicaLagProbe class with a no-argument constructor
+    static ReplicaLagProbe lagProbe(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "mysql":
+                return new MySqlReplicaLagProbe();
+            case "none":
+                return connection -> 0;
+            default:
+                try {
+                    return (ReplicaLagProbe) Class.forName(name.trim()).getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException | ClassCastException e) {
+                    throw new IllegalArgumentException("Unknown replica lag probe: " + name, e);
+                }
+        }
+    }
+
+    // Values from hibernate.cfg.xml or hibernate.properties win over these defaults
+    private static void applyBatchingDefaults(Configuration configuration) {
+        setDefault(configuration, AvailableSettings.STATEMENT_BATCH_SIZE, System.getProperty("lms.jdbc.batchSize", "50"));
+        setDefault(configuration, AvailableSettings.ORDER_INSERTS, "true");
+        setDefault(configuration, AvailableSettings.ORDER_UPDATES, "true");
+        setDefault(configuration, AvailableSettings.BATCH_VERSIONED_DATA, "true");
+    }
+
+    // Second-level and query cache through JCache; regions and limits live in ehcache.xml
+    private static void applyCacheDefaults(Configuration configuration) {
+        setDefault(configuration, AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
+        setDefault(configuration, AvailableSettings.USE_QUERY_CACHE, "true");
+        setDefault(configuration, AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+        setDefault(configuration, "hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+        setDefault(configuration, "hibernate.javax.cache.uri", "ehcache.xml");
+        setDefault(configuration, AvailableSettings.GENERATE_STATISTICS, "true");
+    }
+
+    // Pooled connections through HikariCP unless another provider is configured or -Dlms.pool=none
+    private static void applyPoolDefaults(Configuration configuration) {
+        String provider = configuration.getProperty(AvailableSettings.CONNECTION_PROVIDER);
+        if (provider == null && !"none".equalsIgnoreCase(System.getProperty("lms.pool", "hikari"))) {
+            configuration.setProperty(AvailableSettings.CONNECTION_PROVIDER, HIKARI_PROVIDER);
+            provider = HIKARI_PROVIDER;
+        }
+        if (!HIKARI_PROVIDER.equals(provider)) {
+            logger.info("Connection pooling: {}", provider != null ? provider : "Hibernate built-in");
+            return;
+        }
+        setDefault(configuration, HIKARI_PREFIX + "poolName", "lms-pool");
+        setDefault(configuration, HIKARI_PREFIX + "minimumIdle", System.getProperty("lms.pool.minIdle", "5"));
+        setDefault(configuration, HIKARI_PREFIX + "maximumPoolSize", System.getProperty("lms.pool.maxSize", "20"));
+        setDefault(configuration, HIKARI_PREFIX + "connectionTimeout", System.getProperty("lms.pool.connectionTimeoutMs", "30000"));
+        setDefault(configuration, HIKARI_PREFIX + "validationTimeout", System.getProperty("lms.pool.validationTimeoutMs", "5000"));
+        setDefault(configuration, HIKARI_PREFIX + "idleTimeout", System.getProperty("lms.pool.idleTimeoutMs", "600000"));
+        setDefault(configuration, HIKARI_PREFIX + "maxLifetime", System.getProperty("lms.pool.maxLifetimeMs", "1800000"));
+        // 0 disables leak detection; otherwise connections held longer are logged with the borrowing stack
+        setDefault(configuration, HIKARI_PREFIX + "leakDetectionThreshold", System.getProperty("lms.pool.leakDetectionMs", "60000"));
+        setDefault(configuration, HIKARI_PREFIX + "registerMbeans", "true");
+        // MySQL Connector/J statement caching and multi-row rewrite of batched INSERTs
+        setDefault(configuration, HIKARI_PREFIX + "dataSource.cachePrepStmts", "true");
+        setDefault(configuration, HIKARI_PREFIX + "dataSource.prepStmtCacheSize", "250");
+        setDefault(configuration, HIKARI_PREFIX + "dataSource.prepStmtCacheSqlLimit", "2048");
+        setDefault(configuration, HIKARI_PREFIX + "dataSource.useServerPrepStmts", "true");
+        setDefault(configuration, HIKARI_PREFIX + "dataSource.cacheCallableStmts", "true");
+        setDefault(configuration, HIKARI_PREFIX + "dataSource.rewriteBatchedStatements", "true");
+        // Positive fetch sizes read through a server-side cursor instead of buffering the whole result
+        setDefault(configuration, HIKARI_PREFIX + "dataSource.useCursorFetch", "true");
+        logger.info("Connection pooling: HikariCP (min {}, max {})",
+                configuration.getProperty(HIKARI_PREFIX + "minimumIdle"),
+                configuration.getProperty(HIKARI_PREFIX + "maximumPoolSize"));
+    }
+
+    // Per-thread statistics for com.phuonglinh.metrics; -Dlms.metrics.jdbc=false leaves JDBC unwrapped
+    private static void applyMetricsDefaults(Configuration configuration) {
+        setDefault(configuration, "hibernate.stats.factory", MetricsStatistics.Factory.class.getName());
+        // Installed even while off, as it then returns at once, so StatementAuditor.setMode takes effect
+        setDefault(configuration, AvailableSettings.STATEMENT_INSPECTOR, StatementAuditor.class.getName());
+        if (StatementAuditor.isEnabled()) {
+            // Statement budgets are measured through statistics
+            setDefault(configuration, AvailableSettings.GENERATE_STATISTICS, "true");
+        }
+        if (!Boolean.parseBoolean(System.getProperty("lms.metrics.jdbc", "true"))) {
+            return;
+        }
+        String provider = configuration.getProperty(AvailableSettings.CONNECTION_PROVIDER);
+        if (provider == null) {
+            // The choice Hibernate would make on its own
+            boolean hikari = configuration.getProperties().stringPropertyNames().stream()
+                    .anyMatch(key -> key.startsWith(HIKARI_PREFIX));
+            provider = hikari ? HIKARI_PROVIDER
+                    : configuration.getProperty(AvailableSettings.DATASOURCE) != null
+                    ? DatasourceConnectionProviderImpl.class.getName()
+                    : DriverManagerConnectionProviderImpl.class.getName();
+        }
+        configuration.setProperty(InstrumentedConnectionProvider.TARGET_PROVIDER, provider);
+        configuration.setProperty(AvailableSettings.CONNECTION_PROVIDER, InstrumentedConnectionProvider.class.getName());
+    }
+
+    private static void setDefault(Configuration configuration, String key, String value) {
+        if (configuration.getProperty(key) == null) {
+            configuration.setProperty(key, value);
+        }
+    }
+
     public static SessionFactory getSessionFactory() {
         return sessionFactory;
     }
 
+    public static ReplicaRouter getReplicaRouter() {
+        return replicaRouter;
+    }
+
     public static void shutdown() {
+        if (replicaRouter != null) {
+            replicaRouter.close();
+        }
         if (sessionFactory != null) {
             sessionFactory.close();
             logger.info("Hibernate SessionFactory closed");
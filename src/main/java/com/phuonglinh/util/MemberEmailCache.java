@@ -0,0 +1,120 @@
+package com.phuonglinh.util;
+
+import com.phuonglinh.dto.CacheRegionStats;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Maps member emails to member IDs, including "no such member" answers, so registration and
+ * uniqueness checks stop querying the same email repeatedly. Negative entries expire sooner than
+ * positive ones because a member registered by another process would stay hidden until then;
+ * the unique constraint on the column still rejects such duplicates.
+ */
+public class MemberEmailCache {
+    private static final MemberEmailCache INSTANCE = new MemberEmailCache(
+            Integer.getInteger("lms.memberEmail.maxEntries", 10_000),
+            TimeUnit.SECONDS.toMillis(Long.getLong("lms.memberEmail.ttlSeconds", 300)),
+            TimeUnit.SECONDS.toMillis(Long.getLong("lms.memberEmail.negativeTtlSeconds", 30)));
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    MemberEmailCache(int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+    }
+
+    public static MemberEmailCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the ID of the member with this email, or empty when there is none, calling
+     * {@code loader} only when no live entry exists.
+     */
+    public Optional<Long> memberId(String email, Supplier<Optional<Long>> loader) {
+        Entry entry = entries.get(email);
+        if (entry != null && !entry.isExpired()) {
+            hits.increment();
+            return Optional.ofNullable(entry.memberId);
+        }
+        misses.increment();
+        long generation = invalidations.get();
+        Optional<Long> memberId = loader.get();
+        // An invalidation during the load may mean the loaded answer is already stale
+        if (invalidations.get() == generation) {
+            put(email, memberId.orElse(null));
+            if (invalidations.get() != generation) {
+                entries.remove(email);
+            }
+        }
+        return memberId;
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            invalidations.incrementAndGet();
+            entries.remove(email);
+        }
+    }
+
+    public void clear() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public CacheRegionStats stats() {
+        return new CacheRegionStats("member-email", hits.sum(), misses.sum(), puts.sum(), evictions.sum(),
+                entries.size());
+    }
+
+    private void put(String key, Long memberId) {
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        long ttl = memberId != null ? ttlMillis : negativeTtlMillis;
+        entries.put(key, new Entry(memberId, System.currentTimeMillis() + ttl));
+        puts.increment();
+    }
+
+    // Drops expired entries first, then arbitrary ones until a tenth of the capacity is free
+    private void evict() {
+        entries.values().removeIf(Entry::isExpired);
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries * 9 / 10 && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static class Entry {
+        private final Long memberId;
+        private final long expiresAt;
+
+        Entry(Long memberId, long expiresAt) {
+            this.memberId = memberId;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
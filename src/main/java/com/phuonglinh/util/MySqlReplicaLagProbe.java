@@ -0,0 +1,70 @@
+package com.phuonglinh.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Reads the lag from {@code SHOW REPLICA STATUS} (MySQL 8.0.22 and later, the only form left in
+ * 8.4), falling back to {@code SHOW SLAVE STATUS} on servers that do not know it. On a database
+ * that supports neither it warns once and reports the lag as unknown from then on.
+ */
+public class MySqlReplicaLagProbe implements ReplicaLagProbe {
+    private static final Logger logger = LoggerFactory.getLogger(MySqlReplicaLagProbe.class);
+
+    private volatile boolean legacySyntax;
+    private volatile boolean unsupported;
+
+    @Override
+    public long lagMillis(Connection connection) throws SQLException {
+        if (unsupported) {
+            return Long.MAX_VALUE;
+        }
+        String product = connection.getMetaData().getDatabaseProductName();
+        if (!isMySql(product)) {
+            return unsupported(product);
+        }
+        if (!legacySyntax) {
+            try {
+                return lagMillis(connection, "SHOW REPLICA STATUS", "Seconds_Behind_Source");
+            } catch (SQLSyntaxErrorException e) {
+                legacySyntax = true;
+            }
+        }
+        try {
+            return lagMillis(connection, "SHOW SLAVE STATUS", "Seconds_Behind_Master");
+        } catch (SQLSyntaxErrorException e) {
+            return unsupported(product);
+        }
+    }
+
+    private static boolean isMySql(String product) {
+        String name = product != null ? product.toLowerCase(Locale.ROOT) : "";
+        return name.contains("mysql") || name.contains("mariadb");
+    }
+
+    private long unsupported(String product) {
+        if (!unsupported) {
+            unsupported = true;
+            logger.warn("{} cannot report replication lag; treating replica lag as unknown", product);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static long lagMillis(Connection connection, String sql, String column) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            if (!rs.next()) {
+                return 0; // not configured as a replica, e.g. a standalone local instance
+            }
+            long seconds = rs.getLong(column);
+            return rs.wasNull() ? Long.MAX_VALUE : seconds * 1000;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.phuonglinh.util;
+
+import com.phuonglinh.dto.ContentionStats;
+import com.phuonglinh.exception.ConcurrencyConflictException;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.LockAcquisitionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.LockTimeoutException;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PessimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a unit of work that lost a race with a concurrent update: a version conflict, lock
+ * timeout or deadlock, or a {@link ConcurrencyConflictException} raised by the work itself.
+ * Between attempts it sleeps a random delay below an exponentially growing cap ("full jitter"),
+ * so contending callers spread out instead of colliding again.
+ */
+public class OptimisticRetry {
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    private final String operation;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder backoffMillis = new LongAdder();
+
+    public OptimisticRetry(String operation, int maxAttempts, long baseBackoffMillis, long maxBackoffMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.operation = operation;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Runs {@code work}, which should open its own unit of work. Inside an enclosing unit of work
+     * it runs once: the conflict has already doomed the outer transaction, so only its owner can
+     * retry.
+     */
+    public <T> T execute(Supplier<T> work) {
+        int limit = UnitOfWork.isActive() ? 1 : maxAttempts;
+        for (int attempt = 1; ; attempt++) {
+            attempts.increment();
+            try {
+                T result = work.get();
+                successes.increment();
+                return result;
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                conflicts.increment();
+                if (attempt >= limit) {
+                    exhausted.increment();
+                    throw new ConcurrencyConflictException(
+                            operation + " kept conflicting with concurrent updates after " + attempt + " attempt(s)", e);
+                }
+                retries.increment();
+                long delay = backoff(attempt);
+                logger.debug("{} conflicted on attempt {}, retrying in {} ms: {}", operation, attempt, delay, e.getMessage());
+                sleep(delay);
+            }
+        }
+    }
+
+    public ContentionStats getStats() {
+        return new ContentionStats(operation, attempts.sum(), successes.sum(), conflicts.sum(), retries.sum(),
+                exhausted.sum(), backoffMillis.sum());
+    }
+
+    public static boolean isConflict(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof ConcurrencyConflictException
+                    || t instanceof OptimisticLockException
+                    || t instanceof PessimisticLockException
+                    || t instanceof LockTimeoutException
+                    || t instanceof StaleStateException
+                    || t instanceof LockAcquisitionException
+                    || t instanceof org.hibernate.PessimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long backoff(int attempt) {
+        long cap = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private void sleep(long millis) {
+        backoffMillis.add(millis);
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrencyConflictException(operation + " interrupted while backing off", e);
+        }
+    }
+}
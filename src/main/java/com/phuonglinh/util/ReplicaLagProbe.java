@@ -0,0 +1,12 @@
+package com.phuonglinh.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Measures how far a read replica is behind the primary. Return {@link Long#MAX_VALUE} when the
+ * lag is unknown, e.g. because replication is stopped.
+ */
+public interface ReplicaLagProbe {
+    long lagMillis(Connection connection) throws SQLException;
+}
@@ -0,0 +1,157 @@
+package com.phuonglinh.util;
+
+import com.phuonglinh.enums.ReplicaSelection;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks a read replica for read-only units of work. Replicas whose last measured lag exceeds the
+ * threshold, or whose probe failed, are skipped; when none is usable the caller falls back to
+ * the primary.
+ */
+public class ReplicaRouter {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private final List<Replica> replicas;
+    private final ReplicaSelection selection;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile ReplicaLagProbe lagProbe;
+    private ScheduledExecutorService lagChecker;
+
+    public ReplicaRouter(List<Replica> replicas, ReplicaSelection selection, long maxLagMillis, ReplicaLagProbe lagProbe) {
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+        this.selection = selection;
+        this.maxLagMillis = maxLagMillis;
+        this.lagProbe = lagProbe;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    public void setLagProbe(ReplicaLagProbe lagProbe) {
+        this.lagProbe = lagProbe;
+        checkLag();
+    }
+
+    /**
+     * Returns a usable replica with its in-flight count already incremented, or null when the
+     * primary has to serve the read. Callers must {@link #release(Replica)} what they acquire.
+     */
+    public Replica acquire() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        Replica chosen = null;
+        for (int i = 0; i < size; i++) {
+            Replica candidate = replicas.get((start + i) % size);
+            if (!candidate.isHealthy(maxLagMillis)) {
+                continue;
+            }
+            if (selection == ReplicaSelection.ROUND_ROBIN) {
+                chosen = candidate;
+                break;
+            }
+            if (chosen == null || candidate.inFlight.get() < chosen.inFlight.get()) {
+                chosen = candidate;
+            }
+        }
+        if (chosen != null) {
+            chosen.inFlight.incrementAndGet();
+        }
+        return chosen;
+    }
+
+    public void release(Replica replica) {
+        if (replica != null) {
+            replica.inFlight.decrementAndGet();
+        }
+    }
+
+    public void checkLag() {
+        ReplicaLagProbe probe = lagProbe;
+        for (Replica replica : replicas) {
+            try (Session session = replica.sessionFactory.openSession()) {
+                long lag = session.doReturningWork(probe::lagMillis);
+                if (lag > maxLagMillis && replica.lagMillis <= maxLagMillis) {
+                    logger.warn("Replica {} is {} ms behind, routing its reads to the primary", replica.name, lag);
+                }
+                replica.lagMillis = lag;
+            } catch (RuntimeException e) {
+                logger.warn("Lag probe failed for replica {}", replica.name, e);
+                replica.lagMillis = Long.MAX_VALUE;
+            }
+        }
+    }
+
+    public synchronized void startLagChecks(long intervalMillis) {
+        if (lagChecker != null || replicas.isEmpty()) {
+            return;
+        }
+        lagChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-lag-check");
+            t.setDaemon(true);
+            return t;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkLag, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void close() {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+            lagChecker = null;
+        }
+        for (Replica replica : replicas) {
+            replica.sessionFactory.close();
+        }
+    }
+
+    public static class Replica {
+        private final String name;
+        private final SessionFactory sessionFactory;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long lagMillis;
+
+        public Replica(String name, SessionFactory sessionFactory) {
+            this.name = name;
+            this.sessionFactory = sessionFactory;
+        }
+
+        boolean isHealthy(long maxLagMillis) {
+            return lagMillis <= maxLagMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public SessionFactory getSessionFactory() {
+            return sessionFactory;
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        public long getLagMillis() {
+            return lagMillis;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.phuonglinh.util;
+
+import com.phuonglinh.exception.LibraryException;
+import com.phuonglinh.metrics.StatementAuditor;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Binds one Session and transaction to the current thread for the duration of a service
+ * operation. Nested calls join the outer unit of work; only the outermost one commits or rolls
+ * back. Repositories obtain the bound session through {@link #currentSession()}.
+ */
+public final class UnitOfWork {
+    private static final Logger logger = LoggerFactory.getLogger(UnitOfWork.class);
+    private static final ThreadLocal<Context> CURRENT = new ThreadLocal<>();
+
+    private UnitOfWork() {}
+
+    public static <T> T write(Supplier<T> work) {
+        return execute(work, false);
+    }
+
+    public static void write(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        }, false);
+    }
+
+    /**
+     * Runs {@code work} with read-only entities and manual flushing, so Hibernate keeps no
+     * snapshots for dirty checking and never flushes.
+     */
+    public static <T> T readOnly(Supplier<T> work) {
+        return execute(work, true);
+    }
+
+    public static void readOnly(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        }, true);
+    }
+
+    /**
+     * Like {@link #readOnly(Supplier)}, but may be served by a read replica. Use it only where
+     * results that lag slightly behind recent writes are acceptable. Joins an enclosing unit of
+     * work, which keeps reads after writes on the primary.
+     */
+    public static <T> T replicaRead(Supplier<T> work) {
+        return execute(work, true, true);
+    }
+
+    public static Session currentSession() {
+        Context context = CURRENT.get();
+        if (context == null) {
+            throw new IllegalStateException("No unit of work bound to the current thread");
+        }
+        return context.session;
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public static boolean isReadOnly() {
+        Context context = CURRENT.get();
+        return context != null && context.readOnly;
+    }
+
+    /**
+     * Runs {@code action} once the outermost unit of work has committed; it is dropped on
+     * rollback. Without an active unit of work the action runs immediately.
+     */
+    public static void afterCommit(Runnable action) {
+        Context context = CURRENT.get();
+        if (context == null) {
+            action.run();
+        } else {
+            context.afterCommit.add(action);
+        }
+    }
+
+    private static <T> T execute(Supplier<T> work, boolean readOnly) {
+        return execute(work, readOnly, false);
+    }
+
+    private static <T> T execute(Supplier<T> work, boolean readOnly, boolean replica) {
+        Context context = CURRENT.get();
+        if (context != null) {
+            return join(context, work, readOnly);
+        }
+
+        ReplicaRouter router = HibernateUtil.getReplicaRouter();
+        ReplicaRouter.Replica target = replica && router != null ? router.acquire() : null;
+        try {
+            context = begin(target != null ? target.getSessionFactory() : HibernateUtil.getSessionFactory(), readOnly);
+        } catch (RuntimeException e) {
+            if (target != null) {
+                router.release(target);
+            }
+            throw e;
+        }
+        context.replica = target;
+        CURRENT.set(context);
+        StatementAuditor.beginUnit();
+        try {
+            T result = work.get();
+            if (context.rollbackOnly) {
+                throw new LibraryException("Transaction rolled back because a nested unit of work failed");
+            }
+            context.transaction.commit();
+            context.transaction = null;
+            CURRENT.remove();
+            runAfterCommit(context);
+            return result;
+        } catch (RuntimeException | Error e) {
+            rollback(context);
+            throw e;
+        } finally {
+            CURRENT.remove();
+            StatementAuditor.endUnit();
+            context.session.close();
+            if (context.replica != null) {
+                router.release(context.replica);
+            }
+        }
+    }
+
+    private static <T> T join(Context context, Supplier<T> work, boolean readOnly) {
+        if (context.readOnly && !readOnly) {
+            throw new IllegalStateException("Cannot start a writing unit of work inside a read-only one");
+        }
+        try {
+            return work.get();
+        } catch (RuntimeException | Error e) {
+            context.rollbackOnly = true;
+            throw e;
+        }
+    }
+
+    private static Context begin(SessionFactory sessionFactory, boolean readOnly) {
+        Session session = sessionFactory.openSession();
+        try {
+            if (readOnly) {
+                session.setDefaultReadOnly(true);
+                session.setHibernateFlushMode(FlushMode.MANUAL);
+            }
+            return new Context(session, session.beginTransaction(), readOnly);
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    private static void rollback(Context context) {
+        if (context.transaction == null) {
+            return;
+        }
+        try {
+            if (context.transaction.getStatus().canRollback()) {
+                context.transaction.rollback();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Rollback failed", e);
+        }
+    }
+
+    private static void runAfterCommit(Context context) {
+        for (Runnable action : context.afterCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                logger.warn("After-commit action failed", e);
+            }
+        }
+    }
+
+    private static class Context {
+        private final Session session;
+        private final boolean readOnly;
+        private final List<Runnable> afterCommit = new ArrayList<>();
+        private Transaction transaction;
+        private ReplicaRouter.Replica replica;
+        private boolean rollbackOnly;
+
+        Context(Session session, Transaction transaction, boolean readOnly) {
+            this.session = session;
+            this.transaction = transaction;
+            this.readOnly = readOnly;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.phuonglinh.validation;
 import com.phuonglinh.dto.BorrowBooksRequest;
 import com.phuonglinh.entity.Borrowing;
 import com.phuonglinh.enums.BorrowingStatus;
-import com.phuonglinh.util.HibernateUtil;
+import com.phuonglinh.index.AvailabilityIndex;
+import com.phuonglinh.util.UnitOfWork;
+import org.hibernate.FlushMode;
 import org.hibernate.Session;
 
 import javax.validation.ConstraintValidator;
@@ -39,35 +41,8 @@ public class BorrowingRequestValidator implements ConstraintValidator<ValidBorro
         }
 
         if (request.getMemberId() != null && request.getBookIds() != null) {
-            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-                // Check member's active borrowings
-                Long activeBorrowings = session.createQuery(
-                                "SELECT COUNT(b) FROM Borrowing b WHERE b.member.id = :memberId AND b.status = :status",
-                                Long.class)
-                        .setParameter("memberId", request.getMemberId())
-                        .setParameter("status", BorrowingStatus.BORROWED)
-                        .uniqueResult();
-
-                if (activeBorrowings + request.getBookIds().size() > 5) {
-                    context.disableDefaultConstraintViolation();
-                    context.buildConstraintViolationWithTemplate("Member cannot borrow more than 5 books")
-                            .addConstraintViolation();
-                    isValid = false;
-                }
-
-                // Check if all books are available
-                List<Long> unavailableBooks = session.createQuery(
-                                "SELECT b.id FROM Book b WHERE b.id IN :bookIds AND b.available = false",
-                                Long.class)
-                        .setParameterList("bookIds", request.getBookIds())
-                        .list();
-
-                if (!unavailableBooks.isEmpty()) {
-                    context.disableDefaultConstraintViolation();
-                    context.buildConstraintViolationWithTemplate("Some books are not available: " + unavailableBooks)
-                            .addConstraintViolation();
-                    isValid = false;
-                }
+            try {
+                isValid &= UnitOfWork.readOnly(() -> checkMemberAndBooks(request, context));
             } catch (Exception e) {
                 isValid = false;
             }
@@ -76,6 +51,48 @@ public class BorrowingRequestValidator implements ConstraintValidator<ValidBorro
         return isValid;
     }
 
+    // Joins the caller's unit of work; queries must not auto-flush since this may run during a flush
+    private boolean checkMemberAndBooks(BorrowBooksRequest request, ConstraintValidatorContext context) {
+        Session session = UnitOfWork.currentSession();
+        boolean isValid = true;
+
+        // Check member's active borrowings
+        Long activeBorrowings = session.createQuery(
+                        "SELECT COUNT(b) FROM Borrowing b WHERE b.member.id = :memberId AND b.status = :status",
+                        Long.class)
+                .setHibernateFlushMode(FlushMode.COMMIT)
+                .setParameter("memberId", request.getMemberId())
+                .setParameter("status", BorrowingStatus.BORROWED)
+                .uniqueResult();
+
+        if (activeBorrowings + request.getBookIds().size() > 5) {
+            context.disableDefaultConstraintViolation();
+            context.buildConstraintViolationWithTemplate("Member cannot borrow more than 5 books")
+                    .addConstraintViolation();
+            isValid = false;
+        }
+
+        // The index may lag behind changes made elsewhere, so books it reports as out are re-checked
+        List<Long> unavailableBooks = AvailabilityIndex.getInstance().filterUnavailable(request.getBookIds());
+        if (!unavailableBooks.isEmpty()) {
+            unavailableBooks = session.createQuery(
+                            "SELECT b.id FROM Book b WHERE b.id IN :bookIds AND b.available = false",
+                            Long.class)
+                    .setHibernateFlushMode(FlushMode.COMMIT)
+                    .setParameterList("bookIds", unavailableBooks)
+                    .list();
+        }
+
+        if (!unavailableBooks.isEmpty()) {
+            context.disableDefaultConstraintViolation();
+            context.buildConstraintViolationWithTemplate("Some books are not available: " + unavailableBooks)
+                    .addConstraintViolation();
+            isValid = false;
+        }
+
+        return isValid;
+    }
+
     private boolean validateBorrowing(Borrowing borrowing, ConstraintValidatorContext context) {
         if (borrowing.getBorrowDate() != null && borrowing.getDueDate() != null) {
             if (borrowing.getDueDate().isBefore(borrowing.getBorrowDate())) {
@@ -1,11 +1,13 @@
 package com.phuonglinh.validation;
 
 import com.phuonglinh.entity.Member;
-import com.phuonglinh.util.HibernateUtil;
-import org.hibernate.Session;
+import com.phuonglinh.util.MemberEmailCache;
+import com.phuonglinh.util.UnitOfWork;
+import org.hibernate.FlushMode;
 
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
+import java.util.Optional;
 
 public class UniqueEmailValidator implements ConstraintValidator<UniqueEmail, Member> {
 
@@ -19,15 +21,15 @@ public class UniqueEmailValidator implements ConstraintValidator<UniqueEmail, Me
             return true;
         }
 
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Long count = session.createQuery(
-                            "SELECT COUNT(m) FROM Member m WHERE m.email = :email AND m.id != :id",
-                            Long.class)
-                    .setParameter("email", member.getEmail())
-                    .setParameter("id", member.getId() != null ? member.getId() : -1L)
-                    .uniqueResult();
+        try {
+            Optional<Long> owner = MemberEmailCache.getInstance().memberId(member.getEmail(),
+                    () -> UnitOfWork.readOnly(() -> Optional.ofNullable(UnitOfWork.currentSession().createQuery(
+                                    "SELECT m.id FROM Member m WHERE m.email = :email", Long.class)
+                            .setHibernateFlushMode(FlushMode.COMMIT)
+                            .setParameter("email", member.getEmail())
+                            .uniqueResult())));
 
-            return count == 0;
+            return !owner.isPresent() || owner.get().equals(member.getId());
         } catch (Exception e) {
             return false;
         }
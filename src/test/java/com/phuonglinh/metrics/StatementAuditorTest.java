@@ -0,0 +1,97 @@
+package com.phuonglinh.metrics;
+
+import com.phuonglinh.dto.BorrowBooksRequest;
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.entity.Borrowing;
+import com.phuonglinh.entity.Member;
+import com.phuonglinh.enums.StatementCheckMode;
+import com.phuonglinh.exception.StatementBudgetExceededException;
+import com.phuonglinh.exception.SuspectedNPlusOneException;
+import com.phuonglinh.service.BookService;
+import com.phuonglinh.service.BorrowingService;
+import com.phuonglinh.service.impl.Services;
+import com.phuonglinh.util.UnitOfWork;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs with {@code lms.statements.mode=fail}: checkout must stay within its statement budget, and
+ * a query repeated per row must fail the unit of work as a suspected N+1.
+ */
+class StatementAuditorTest {
+    private static final String BORROW_BUDGET = "lms.statements.budget.BorrowingService.borrowBooks";
+    private static StatementCheckMode previousMode;
+
+    private final BookService bookService = Services.bookService();
+    private final BorrowingService borrowingService = Services.borrowingService();
+
+    @BeforeAll
+    static void failOnFindings() {
+        previousMode = StatementAuditor.getMode();
+        StatementAuditor.setMode(StatementCheckMode.FAIL);
+    }
+
+    @AfterAll
+    static void restoreMode() {
+        StatementAuditor.setMode(previousMode);
+    }
+
+    @Test
+    void borrowBooksStaysWithinItsBudget() {
+        String run = Long.toString(System.nanoTime());
+        List<Long> bookIds = createBooks("Budget " + run, 5);
+        Long memberId = Services.memberService().register(new Member("Budget Reader", "budget." + run + "@test.lms")).getId();
+
+        // The first checkout also loads the member and the in-memory indexes
+        List<Borrowing> warmUp = borrowingService.borrowBooks(
+                new BorrowBooksRequest(memberId, bookIds.subList(0, 1), LocalDate.now().plusDays(7)));
+        borrowingService.returnBooks(warmUp.stream().map(Borrowing::getId).collect(Collectors.toList()), LocalDate.now());
+
+        List<Borrowing> borrowed = borrowingService.borrowBooks(
+                new BorrowBooksRequest(memberId, bookIds.subList(1, 4), LocalDate.now().plusDays(7)));
+        assertEquals(3, borrowed.size());
+
+        System.setProperty(BORROW_BUDGET, "1");
+        try {
+            assertThrows(StatementBudgetExceededException.class, () -> borrowingService.borrowBooks(
+                    new BorrowBooksRequest(memberId, Collections.singletonList(bookIds.get(4)), LocalDate.now().plusDays(7))));
+        } finally {
+            System.clearProperty(BORROW_BUDGET);
+        }
+    }
+
+    @Test
+    void repeatedSelectsAreReportedAsNPlusOne() {
+        List<Long> bookIds = createBooks("N+1 " + System.nanoTime(), 12);
+
+        SuspectedNPlusOneException e = assertThrows(SuspectedNPlusOneException.class, () -> UnitOfWork.readOnly(() -> {
+            for (Long id : bookIds) {
+                UnitOfWork.currentSession()
+                        .createQuery("FROM Book b WHERE b.id = :id", Book.class)
+                        .setParameter("id", id)
+                        .uniqueResult();
+            }
+            return null;
+        }));
+        assertTrue(e.getMessage().startsWith("Suspected N+1"), e.getMessage());
+    }
+
+    private List<Long> createBooks(String title, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(bookService.create(new Book(title + " #" + i, "Auditing")).getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,141 @@
+package com.phuonglinh.service.impl;
+
+import com.phuonglinh.dto.BorrowBooksRequest;
+import com.phuonglinh.entity.Book;
+import com.phuonglinh.entity.Borrowing;
+import com.phuonglinh.entity.Member;
+import com.phuonglinh.enums.BorrowingStatus;
+import com.phuonglinh.exception.LibraryException;
+import com.phuonglinh.service.BookService;
+import com.phuonglinh.service.BorrowingService;
+import com.phuonglinh.service.MemberService;
+import com.phuonglinh.util.UnitOfWork;
+import org.hibernate.query.Query;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many members race for a few books. Checkout claims books with a conditional UPDATE, so however
+ * the threads interleave, no book may be lent twice and {@code available} must agree with the
+ * borrowings table.
+ */
+class BorrowingServiceConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 40;
+    private static final int HOT_BOOKS = 3;
+
+    private final BookService bookService = new BookServiceImpl();
+    private final MemberService memberService = new MemberServiceImpl();
+    private final BorrowingService borrowingService = new BorrowingServiceImpl();
+
+    @Test
+    void concurrentCheckoutsNeverLendABookTwice() throws Exception {
+        String run = Long.toString(System.nanoTime());
+        List<Long> hotBooks = new ArrayList<>();
+        for (int i = 0; i < HOT_BOOKS; i++) {
+            hotBooks.add(bookService.create(new Book("Hot " + i + " " + run, "Contention")).getId());
+        }
+        List<Long> members = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            members.add(memberService.register(new Member("Reader " + i, "reader" + i + "." + run + "@test.lms")).getId());
+        }
+
+        AtomicInteger checkouts = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            Long memberId = members.get(t);
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        List<Long> wanted = new ArrayList<>(hotBooks);
+                        Collections.shuffle(wanted, ThreadLocalRandom.current());
+                        wanted = wanted.subList(0, 1 + ThreadLocalRandom.current().nextInt(2));
+                        try {
+                            List<Borrowing> borrowed = borrowingService.borrowBooks(
+                                    new BorrowBooksRequest(memberId, wanted, LocalDate.now().plusDays(7)));
+                            checkouts.incrementAndGet();
+                            // Returning at once keeps the books changing hands
+                            if (round % 2 == 0) {
+                                borrowingService.returnBooks(borrowed.stream().map(Borrowing::getId)
+                                        .collect(Collectors.toList()), LocalDate.now());
+                            }
+                        } catch (LibraryException e) {
+                            // Lost the race: unavailable, rejected by validation or out of retries
+                        }
+                    }
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES), "stress run timed out");
+
+        assertTrue(unexpected.isEmpty(), () -> "unexpected failures: " + unexpected);
+        assertTrue(checkouts.get() > 0, "no checkout succeeded");
+
+        Map<Long, Boolean> availability = new HashMap<>();
+        UnitOfWork.readOnly(() -> {
+            Map<Long, Long> active = countBorrowings(hotBooks, true);
+            Map<Long, Long> total = countBorrowings(hotBooks, false);
+            List<Object[]> books = UnitOfWork.currentSession()
+                    .createQuery("SELECT b.id, b.available, b.borrowCount FROM Book b WHERE b.id IN :ids", Object[].class)
+                    .setParameterList("ids", hotBooks)
+                    .list();
+            assertEquals(HOT_BOOKS, books.size());
+            for (Object[] book : books) {
+                Long id = (Long) book[0];
+                long lent = active.getOrDefault(id, 0L);
+                assertTrue(lent <= 1, "book " + id + " has " + lent + " active borrowings");
+                assertEquals(lent == 0, book[1], "availability of book " + id);
+                assertEquals(total.getOrDefault(id, 0L), book[2], "borrow count of book " + id);
+                availability.put(id, (Boolean) book[1]);
+            }
+        });
+
+        // Checkouts and returns evict only the books they touch; what remains cached must match the rows
+        UnitOfWork.readOnly(() -> {
+            for (Long id : hotBooks) {
+                assertEquals(availability.get(id), UnitOfWork.currentSession().get(Book.class, id).getAvailable(),
+                        "cached availability of book " + id);
+            }
+        });
+    }
+
+    private static Map<Long, Long> countBorrowings(List<Long> bookIds, boolean activeOnly) {
+        Query<Object[]> query = UnitOfWork.currentSession()
+                .createQuery("SELECT br.book.id, COUNT(br) FROM Borrowing br WHERE br.book.id IN :ids"
+                        + (activeOnly ? " AND br.status = :status" : "") + " GROUP BY br.book.id", Object[].class)
+                .setParameterList("ids", bookIds);
+        if (activeOnly) {
+            query.setParameter("status", BorrowingStatus.BORROWED);
+        }
+        List<Object[]> rows = query.list();
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,88 @@
+package com.phuonglinh.util;
+
+import com.phuonglinh.entity.Book;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Routes reads to a second in-memory database standing in for a replica. The replica holds a
+ * different version of a book than the primary, the way a lagging replica would.
+ */
+class ReplicaRouterTest {
+    private static final String REPLICA_URL = "jdbc:h2:mem:lms-replica;DB_CLOSE_DELAY=-1;MODE=MySQL";
+
+    @Test
+    void replicaReadsDoNotLeakIntoThePrimaryCache() throws Exception {
+        SessionFactory primary = HibernateUtil.getSessionFactory();
+        Long bookId = UnitOfWork.write(() -> {
+            Book book = new Book("Current title", "Replication");
+            UnitOfWork.currentSession().save(book);
+            return book.getId();
+        });
+        copySchemaToReplica(primary);
+        try (Connection replicaDb = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             PreparedStatement insert = replicaDb.prepareStatement(
+                     "INSERT INTO books (id, title, category, available, borrow_count, version) VALUES (?, ?, ?, TRUE, 0, 0)")) {
+            insert.setLong(1, bookId);
+            insert.setString(2, "Stale title");
+            insert.setString(3, "Replication");
+            insert.executeUpdate();
+        }
+
+        ReplicaRouter router = HibernateUtil.buildReplicaRouter(REPLICA_URL, HibernateUtil.lagProbe("none"));
+        try {
+            ReplicaRouter.Replica replica = router.acquire();
+            assertNotNull(replica, "replica with a zero-lag probe should be usable");
+            assertFalse(replica.getSessionFactory().getSessionFactoryOptions().isSecondLevelCacheEnabled());
+            assertFalse(replica.getSessionFactory().getSessionFactoryOptions().isQueryCacheEnabled());
+            router.release(replica);
+
+            primary.getCache().evictEntityData(Book.class, bookId);
+            try (Session session = replica.getSessionFactory().openSession()) {
+                assertEquals("Stale title", session.get(Book.class, bookId).getTitle());
+            }
+            String title = UnitOfWork.readOnly(() -> UnitOfWork.currentSession().get(Book.class, bookId).getTitle());
+            assertEquals("Current title", title);
+
+            // H2 cannot report replication lag, so the MySQL probe reports it as unknown and reads go to the primary
+            router.setLagProbe(HibernateUtil.lagProbe("mysql"));
+            assertNull(router.acquire());
+        } finally {
+            router.close();
+        }
+    }
+
+    private static void copySchemaToReplica(SessionFactory primary) throws Exception {
+        List<String> ddl = new ArrayList<>();
+        try (Session session = primary.openSession()) {
+            session.doWork(connection -> {
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery("SCRIPT NODATA")) {
+                    while (rs.next()) {
+                        ddl.add(rs.getString(1));
+                    }
+                }
+            });
+        }
+        try (Connection replicaDb = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replicaDb.createStatement()) {
+            for (String sql : ddl) {
+                statement.execute(sql);
+            }
+        }
+    }
+}